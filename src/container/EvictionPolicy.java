@@ -0,0 +1,442 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package container;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Eviction policy of a {@link ResourcesContainer} whose memory is bounded. The
+ * evictable properties are weighed when they are stored, and queued in a
+ * clock : a property read since the clock hand last passed it gets a second
+ * chance. When storing a property exceeds the budget, the victims are taken
+ * from the clock hand until the property fits, and a frequency filter
+ * (TinyLFU) decides whether it is worth it : if a victim was used more often
+ * than the new property, the new property is not kept instead. The usage
+ * frequencies are estimated by a count-min sketch of 4 bits counters (16 by
+ * long), halved periodically so that the old usages fade away. The sketch
+ * grows with the number of properties, up to a sixteenth of the budget, and
+ * its memory (in bytes) is counted in the budget.<br>
+ * The write operations are called under the container write lock. The reads
+ * do not touch the sketch : they mark the property as referenced and push it
+ * in a lossy read buffer (a read may overwrite another one not recorded yet,
+ * which does not matter for estimates). The buffer is drained to the sketch
+ * by the write operations.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class EvictionPolicy {
+
+	/** Multipliers of the sketch hash functions (odd values) **/
+	private static final int[] SEEDS = { 0x9E3779B1, 0x85EBCA6B, 0xC2B2AE35,
+			0x27D4EB2F };
+
+	/** Maximum value of a sketch counter **/
+	private static final int MAXIMUM_FREQUENCY = 15;
+
+	/** Number of counters by sketch word **/
+	private static final int COUNTERS_BY_WORD = 16;
+
+	/** Mask clearing the high bit of each counter, when they are halved **/
+	private static final long HALVING_MASK = 0x7777777777777777L;
+
+	/** Share of the budget the sketch may use (as a divisor) **/
+	private static final int SKETCH_BUDGET_DIVISOR = 16;
+
+	/** Number of reads the read buffer holds (a power of 2) **/
+	private static final int READ_BUFFER_SIZE = 128;
+
+	/** Number of additions, by sketch word, before the counters are halved **/
+	private static final int SAMPLE_FACTOR = 10;
+
+	/** Minimum number of counters of the sketch **/
+	private static final int MINIMUM_SKETCH_SIZE = 64;
+
+	/** Maximum number of counters of the sketch **/
+	private static final int MAXIMUM_SKETCH_SIZE = 1 << 24;
+
+	/** Maximum total weight of the properties **/
+	private final long maximumWeight;
+
+	/** Weigher of the property values **/
+	private final PropertyWeigher weigher;
+
+	/** Clock of the properties, the hand being the queue head **/
+	private final ArrayDeque<Node> clock;
+
+	/** Total weight of the properties **/
+	private long totalWeight;
+
+	/** Number of properties **/
+	private int size;
+
+	/** Maximum number of counters of the sketch, in this budget **/
+	private final int maximumSketchSize;
+
+	/** Frequency sketch counters, packed by word (replaced when it grows) **/
+	private long[] sketch;
+
+	/** Additions to the sketch since it was last halved **/
+	private int additions;
+
+	/** Properties read, not recorded in the sketch yet **/
+	private final AtomicReferenceArray<Node> readBuffer;
+
+	/** Index of the next read in the read buffer **/
+	private final AtomicInteger readIndex;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maximumWeight
+	 *            : see attribute
+	 * @param weigher
+	 *            : see attribute
+	 */
+	EvictionPolicy(long maximumWeight, PropertyWeigher weigher) {
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		clock = new ArrayDeque<Node>();
+		int sketchSize = MINIMUM_SKETCH_SIZE;
+		while (sketchSize < MAXIMUM_SKETCH_SIZE
+				&& getSketchWeight(sketchSize << 1) <= maximumWeight
+						/ SKETCH_BUDGET_DIVISOR) {
+			sketchSize <<= 1;
+		}
+		maximumSketchSize = sketchSize;
+		sketch = new long[MINIMUM_SKETCH_SIZE / COUNTERS_BY_WORD];
+		readBuffer = new AtomicReferenceArray<Node>(READ_BUFFER_SIZE);
+		readIndex = new AtomicInteger();
+	}
+
+	/**
+	 * Builds the node of a property value (not added yet)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param value
+	 *            : property value
+	 * @return - the node, holding the value weight
+	 */
+	Node newNode(String key, Object value) {
+		return new Node(this, key, Math.max(0, weigher.weigh(key, value)));
+	}
+
+	/**
+	 * Adds a property node, evicting other properties if the budget is
+	 * exceeded
+	 * 
+	 * @param candidate
+	 *            : node to add
+	 * @return - the nodes of the properties to evict (holding the candidate
+	 *         itself if it is not kept)
+	 */
+	List<Node> add(Node candidate) {
+		drainReadBuffer();
+		ensureSketchCapacity(size + 1);
+		increment(candidate.key);
+		long budget = maximumWeight - getSketchWeight(sketch.length
+				* COUNTERS_BY_WORD);
+		if (candidate.weight > budget) {
+			// could never fit
+			candidate.removed = true;
+			return Collections.singletonList(candidate);
+		}
+
+		// a - take the victims from the clock hand until the candidate fits
+		List<Node> victims = new ArrayList<Node>();
+		long freedWeight = 0;
+		int candidateFrequency = frequency(candidate.key);
+		int chances = clock.size();
+		while (totalWeight - freedWeight + candidate.weight > budget) {
+			Node victim = clock.pollFirst();
+			if (victim.removed) {
+				continue;
+			}
+			if (victim.referenced && chances-- > 0) {
+				// read since the last pass : second chance
+				victim.referenced = false;
+				clock.addLast(victim);
+				continue;
+			}
+			if (frequency(victim.key) > candidateFrequency) {
+				// the victim is more useful : keep it and reject the candidate
+				clock.addFirst(victim);
+				for (int i = victims.size() - 1; i >= 0; i--) {
+					clock.addFirst(victims.get(i));
+				}
+				candidate.removed = true;
+				return Collections.singletonList(candidate);
+			}
+			victims.add(victim);
+			freedWeight += victim.weight;
+		}
+
+		// b - evict them and add the candidate
+		for (Node victim : victims) {
+			victim.removed = true;
+			totalWeight -= victim.weight;
+			size--;
+		}
+		clock.addLast(candidate);
+		totalWeight += candidate.weight;
+		size++;
+		if (clock.size() > 2 * size + MINIMUM_SKETCH_SIZE) {
+			// too many removed nodes are waiting for the hand
+			compact();
+		}
+		return victims;
+	}
+
+	/**
+	 * Removes a property node (replaced or removed from the container). The
+	 * nodes of another policy (replaced by this one) are ignored.
+	 * 
+	 * @param node
+	 *            : node to remove
+	 */
+	void remove(Node node) {
+		if (node.policy == this && !node.removed) {
+			node.removed = true;
+			totalWeight -= node.weight;
+			size--;
+		}
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the total weight of the properties and of the sketch
+	 */
+	long getTotalWeight() {
+		return totalWeight
+				+ getSketchWeight(sketch.length * COUNTERS_BY_WORD);
+	}
+
+	/**
+	 * Returns the weight of a sketch
+	 * 
+	 * @param counters
+	 *            : number of counters of the sketch
+	 * @return - the sketch memory, in bytes
+	 */
+	private static long getSketchWeight(int counters) {
+		return (long) counters / COUNTERS_BY_WORD * 8;
+	}
+
+	/**
+	 * Records a read of a property in the read buffer (called without lock)
+	 * 
+	 * @param node
+	 *            : node of the property read
+	 */
+	private void recordRead(Node node) {
+		readBuffer.lazySet(readIndex.getAndIncrement()
+				& (READ_BUFFER_SIZE - 1), node);
+	}
+
+	/**
+	 * Records the reads of the read buffer in the sketch
+	 */
+	private void drainReadBuffer() {
+		for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+			Node node = readBuffer.get(i);
+			if (node != null) {
+				readBuffer.lazySet(i, null);
+				if (!node.removed) {
+					increment(node.key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the removed nodes from the clock
+	 */
+	private void compact() {
+		int count = clock.size();
+		for (int i = 0; i < count; i++) {
+			Node node = clock.pollFirst();
+			if (!node.removed) {
+				clock.addLast(node);
+			}
+		}
+	}
+
+	/**
+	 * Grows the sketch so that it holds at least a word (16 counters) by
+	 * property, in its share of the budget (the frequencies known are then
+	 * lost)
+	 * 
+	 * @param properties
+	 *            : number of properties
+	 */
+	private void ensureSketchCapacity(int properties) {
+		int length = sketch.length * COUNTERS_BY_WORD;
+		long wanted = (long) properties * COUNTERS_BY_WORD;
+		if (wanted <= length || length >= maximumSketchSize) {
+			return;
+		}
+		while (length < wanted && length < maximumSketchSize) {
+			length <<= 1;
+		}
+		sketch = new long[length / COUNTERS_BY_WORD];
+		additions = 0;
+	}
+
+	/**
+	 * Records a use of a property in the sketch
+	 * 
+	 * @param key
+	 *            : property key
+	 */
+	private void increment(String key) {
+		int length = sketch.length * COUNTERS_BY_WORD;
+		int hash = key.hashCode();
+		boolean added = false;
+		for (int i = 0; i < SEEDS.length; i++) {
+			int index = index(hash, i, length);
+			if (counter(index) < MAXIMUM_FREQUENCY) {
+				sketch[index / COUNTERS_BY_WORD] += 1L << shift(index);
+				added = true;
+			}
+		}
+		if (added && ++additions >= SAMPLE_FACTOR * sketch.length) {
+			// age the frequencies
+			for (int i = 0; i < sketch.length; i++) {
+				sketch[i] = (sketch[i] >>> 1) & HALVING_MASK;
+			}
+			additions = 0;
+		}
+	}
+
+	/**
+	 * Returns the estimated use frequency of a property
+	 * 
+	 * @param key
+	 *            : property key
+	 * @return - the frequency estimate (lowest counter of the key)
+	 */
+	private int frequency(String key) {
+		int length = sketch.length * COUNTERS_BY_WORD;
+		int hash = key.hashCode();
+		int frequency = MAXIMUM_FREQUENCY;
+		for (int i = 0; i < SEEDS.length; i++) {
+			frequency = Math.min(frequency, counter(index(hash, i, length)));
+		}
+		return frequency;
+	}
+
+	/**
+	 * Returns the value of a sketch counter
+	 * 
+	 * @param index
+	 *            : counter index
+	 * @return - the counter value
+	 */
+	private int counter(int index) {
+		return (int) (sketch[index / COUNTERS_BY_WORD] >>> shift(index))
+				& MAXIMUM_FREQUENCY;
+	}
+
+	/**
+	 * Returns the position of a counter in its sketch word
+	 * 
+	 * @param index
+	 *            : counter index
+	 * @return - the counter shift, in bits
+	 */
+	private static int shift(int index) {
+		return (index & (COUNTERS_BY_WORD - 1)) << 2;
+	}
+
+	/**
+	 * Returns the index of a counter of a key
+	 * 
+	 * @param hash
+	 *            : key hash code
+	 * @param function
+	 *            : hash function index
+	 * @param length
+	 *            : number of counters (a power of 2)
+	 * @return - the counter index
+	 */
+	private static int index(int hash, int function, int length) {
+		int mixed = hash * SEEDS[function];
+		return (mixed ^ (mixed >>> 16)) & (length - 1);
+	}
+
+	/**
+	 * Evictable property, queued in the clock
+	 */
+	static final class Node {
+
+		/** Policy of the node **/
+		private final EvictionPolicy policy;
+
+		/** Property key **/
+		final String key;
+
+		/** Property value weight **/
+		private final long weight;
+
+		/**
+		 * Was the property read since the clock hand last passed it (written
+		 * without lock by the readers : a lost update only costs a second
+		 * chance)
+		 */
+		private boolean referenced;
+
+		/** Was the node evicted or removed (guarded by the container lock) **/
+		private boolean removed;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param policy
+		 *            : see attribute
+		 * @param key
+		 *            : see attribute
+		 * @param weight
+		 *            : see attribute
+		 */
+		private Node(EvictionPolicy policy, String key, long weight) {
+			this.policy = policy;
+			this.key = key;
+			this.weight = weight;
+		}
+
+		/**
+		 * Records a read of the property (called without lock)
+		 */
+		void recordAccess() {
+			if (!referenced) {
+				referenced = true;
+			}
+			policy.recordRead(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,246 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package container;
+
+/**
+ * A property whose value is a primitive (int, long, float, double or boolean).
+ * The value is only held in a primitive slot, so that it can be read without
+ * unboxing nor allocation : it is boxed when it is asked as an object (see
+ * {@link #getValue()}).
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public final class PrimitiveProperty<T> extends Property<T> {
+
+	/**
+	 * Primitive value : the integer, long or boolean (1 for true) value, or the
+	 * raw bits of the float or double value
+	 */
+	private final long bits;
+
+	/** Boxed type of the value (Integer, Long, Float, Double or Boolean) **/
+	private final Class<T> valueType;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param valueType
+	 *            : see attribute
+	 * @param bits
+	 *            : see attribute
+	 * @param representation
+	 *            : property representation
+	 */
+	private PrimitiveProperty(Class<T> valueType, long bits,
+			String representation) {
+		super(null, representation);
+		this.valueType = valueType;
+		this.bits = bits;
+	}
+
+	/**
+	 * Creates an integer property
+	 * 
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	public static PrimitiveProperty<Integer> ofInt(int value,
+			String representation) {
+		return new PrimitiveProperty<Integer>(Integer.class, value,
+				representation);
+	}
+
+	/**
+	 * Creates a long property
+	 * 
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	public static PrimitiveProperty<Long> ofLong(long value,
+			String representation) {
+		return new PrimitiveProperty<Long>(Long.class, value, representation);
+	}
+
+	/**
+	 * Creates a float property
+	 * 
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	public static PrimitiveProperty<Float> ofFloat(float value,
+			String representation) {
+		return new PrimitiveProperty<Float>(Float.class, Float
+				.floatToRawIntBits(value), representation);
+	}
+
+	/**
+	 * Creates a double property
+	 * 
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	public static PrimitiveProperty<Double> ofDouble(double value,
+			String representation) {
+		return new PrimitiveProperty<Double>(Double.class, Double
+				.doubleToRawLongBits(value), representation);
+	}
+
+	/**
+	 * Creates a boolean property
+	 * 
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	public static PrimitiveProperty<Boolean> ofBoolean(boolean value,
+			String representation) {
+		return new PrimitiveProperty<Boolean>(Boolean.class, value ? 1 : 0,
+				representation);
+	}
+
+	/**
+	 * Creates a property, in a primitive slot when its value is a boxed
+	 * primitive (the boxed value is then not kept)
+	 * 
+	 * @param <T>
+	 *            : type of the property value
+	 * @param value
+	 *            : property value
+	 * @param representation
+	 *            : property representation
+	 * @return - the property created
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Property<T> create(T value, String representation) {
+		if (value instanceof Integer) {
+			return (Property<T>) ofInt(((Integer) value).intValue(),
+					representation);
+		}
+		if (value instanceof Long) {
+			return (Property<T>) ofLong(((Long) value).longValue(),
+					representation);
+		}
+		if (value instanceof Float) {
+			return (Property<T>) ofFloat(((Float) value).floatValue(),
+					representation);
+		}
+		if (value instanceof Double) {
+			return (Property<T>) ofDouble(((Double) value).doubleValue(),
+					representation);
+		}
+		if (value instanceof Boolean) {
+			return (Property<T>) ofBoolean(((Boolean) value).booleanValue(),
+					representation);
+		}
+		return new Property<T>(value, representation);
+	}
+
+	/**
+	 * Returns the value, boxed by this call
+	 * 
+	 * @return the boxed value
+	 */
+	@Override
+	public T getValue() {
+		Object value;
+		if (valueType == Integer.class) {
+			value = Integer.valueOf(getIntValue());
+		} else if (valueType == Long.class) {
+			value = Long.valueOf(getLongValue());
+		} else if (valueType == Float.class) {
+			value = Float.valueOf(getFloatValue());
+		} else if (valueType == Double.class) {
+			value = Double.valueOf(getDoubleValue());
+		} else {
+			value = Boolean.valueOf(getBooleanValue());
+		}
+		return valueType.cast(value);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the boxed type of the value (Integer, Long, Float, Double or
+	 *         Boolean)
+	 */
+	public Class<T> getValueType() {
+		return valueType;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the value as an integer (for an Integer property)
+	 */
+	public int getIntValue() {
+		return (int) bits;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the value as a long (for a Long property)
+	 */
+	public long getLongValue() {
+		return bits;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the value as a float (for a Float property)
+	 */
+	public float getFloatValue() {
+		return Float.intBitsToFloat((int) bits);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the value as a double (for a Double property)
+	 */
+	public double getDoubleValue() {
+		return Double.longBitsToDouble(bits);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the value as a boolean (for a Boolean property)
+	 */
+	public boolean getBooleanValue() {
+		return bits != 0;
+	}
+
+}
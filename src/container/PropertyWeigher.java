@@ -0,0 +1,44 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package container;
+
+/**
+ * Weigher of the property values, used by a {@link ResourcesContainer} whose
+ * memory is bounded (see
+ * {@link ResourcesContainer#setMemoryBudget(long, PropertyWeigher)}). The
+ * weight unit is free (bytes for instance), as long as the budget uses the
+ * same one.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public interface PropertyWeigher {
+
+	/**
+	 * Returns the weight of a property value
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param value
+	 *            : property value (never null)
+	 * @return - the value weight, positive or zero
+	 */
+	long weigh(String key, Object value);
+
+}
@@ -18,41 +18,133 @@
 
 package container;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Global container for resources. Any user can put properties here so that they
  * are centralized. <br>
  * It uses property change support to propagate change events (the element fired
  * are {@link Property}). Such mechanism allows the programmer to bind directly
- * the resource container into GUI properties, like colors, fonts, ...
+ * the resource container into GUI properties, like colors, fonts, ...<br>
+ * A container can be built in concurrent mode (the singleton instance always
+ * is) : the properties are then stored in a lock-free hash map, so that reading
+ * a known property never takes a lock. Writes (add and clear operations) are
+ * serialized so that they remain linearizable. Their change events are fired
+ * once the write is applied, out of the lock : the listeners may read or write
+ * this container from any thread (the events of concurrent writes may then be
+ * received in another order than the writes).<br>
+ * Clearing the container does not walk the properties : it starts a new
+ * generation, in which the properties of the previous ones are no longer
+ * returned by {@link #getProperty(String)}. Loaders may validate them again on
+ * their next use (see {@link #getStaleProperty(String)}). The properties of the
+ * previous generations are then dropped progressively, a few at each write
+ * operation, so that a clear frees their memory without walking them at once.
+ * A single event, with
+ * a null property name, notifies the listeners registered for all properties
+ * that the container was reset.<br>
+ * Loaders store the properties they resolve for the first time through
+ * {@link #fillProperty(String, Property)}, that does not notify the listeners :
+ * change events are only fired when the value of a known property really
+ * changes.<br>
+ * The memory of the properties read by the loaders can be bounded (see
+ * {@link #setMemoryBudget(long, PropertyWeigher)}) : the properties that are
+ * rarely used are then evicted silently, and the loaders read them again on
+ * their next use.<br>
+ * The keys that were not found are stored apart from the properties, in a
+ * bounded cache (see {@link #setUnfoundCacheSize(int)}) : the oldest ones are
+ * forgotten first, and they may also expire (see
+ * {@link #setUnfoundTimeToLive(long)}). A forgotten key is searched again by
+ * the loaders on its next use.
  * 
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
 public class ResourcesContainer {
 
+	/** Default maximum number of keys not found remembered **/
+	public static final int DEFAULT_UNFOUND_CACHE_SIZE = 4096;
+
+	/** Number of keys checked for staleness at each write operation **/
+	private static final int SWEEP_BATCH_SIZE = 16;
+
 	/** Marker for for a value that was not found **/
 	private static final Property<Object> ITEM_NOT_FOUND = new Property<Object>(
 			null, null);
 
-	/** Singleton instance **/
-	private static ResourcesContainer __instance;
+	/** List of properties already loaded, with their generation **/
+	private final Map<String, Slot> loadedProperties;
+
+	/** Keys that were not found, with their generation **/
+	private final Map<String, Unfound> unfoundProperties;
+
+	/**
+	 * Keys not found, from the oldest to the newest (guarded by the write lock,
+	 * may hold entries that were replaced since then)
+	 */
+	private final ArrayDeque<Unfound> unfoundOrder;
+
+	/** Maximum number of keys not found remembered (guarded by the write lock) **/
+	private int unfoundCacheSize;
 
-	/** List of properties already loaded **/
-	private final Map<String, Property<?>> loadedProperties;
+	/**
+	 * Time a key not found is remembered, in nanoseconds (0 for ever)
+	 */
+	private volatile long unfoundTimeToLive;
+
+	/** Current generation (incremented on each clear) **/
+	private volatile long generation;
+
+	/** Has a clear happened since the last sweep started **/
+	private boolean sweepPending;
+
+	/**
+	 * Keys to check for staleness after a clear, null when no sweep is running
+	 * (guarded by the write lock)
+	 */
+	private List<String> sweptKeys;
+
+	/** Index of the next key to check in the swept keys **/
+	private int sweepIndex;
+
+	/** Lock serializing the write operations **/
+	private final Object writeLock;
 
 	/** Property change support **/
 	private final PropertyChangeSupport support;
 
+	/**
+	 * Eviction policy of the properties read by the loaders, null when the
+	 * memory is not bounded (guarded by the write lock)
+	 */
+	private EvictionPolicy evictionPolicy;
+
 	/**
 	 * Constructor
+	 * 
+	 * @param concurrent
+	 *            : should the container be safely shared between threads
+	 *            (reads are then lock-free)
 	 */
-	private ResourcesContainer() {
-		loadedProperties = new HashMap<String, Property<?>>();
+	public ResourcesContainer(boolean concurrent) {
+		if (concurrent) {
+			loadedProperties = new ConcurrentHashMap<String, Slot>();
+			unfoundProperties = new ConcurrentHashMap<String, Unfound>();
+		} else {
+			loadedProperties = new HashMap<String, Slot>();
+			unfoundProperties = new HashMap<String, Unfound>();
+		}
+		unfoundOrder = new ArrayDeque<Unfound>();
+		unfoundCacheSize = DEFAULT_UNFOUND_CACHE_SIZE;
+		writeLock = new Object();
 		support = new PropertyChangeSupport(this);
 	}
 
@@ -65,19 +157,72 @@ public class ResourcesContainer {
 	 *            : value for the key
 	 */
 	public void addProperty(String key, Property<?> value) {
-		Property<?> oldProp = loadedProperties.get(key);
+		putProperty(key, value, false);
+	}
 
-		// compute the old user value
-		Object oldValue = null;
-		if (oldProp != null && !isUnfoundProperty(oldProp)) {
-			oldValue = oldProp.getValue();
+	/**
+	 * Adds a property value resolved again by a loader (its definition
+	 * changed). As for {@link #addProperty(String, Property)}, the listeners
+	 * are notified of the change. As for
+	 * {@link #fillProperty(String, Property)}, the property may be evicted.
+	 * 
+	 * @param key
+	 *            : key loaded
+	 * @param value
+	 *            : value for the key, null if the property was not found
+	 */
+	public void addResolvedProperty(String key, Property<?> value) {
+		putProperty(key, value, true);
+	}
+
+	/**
+	 * Adds a property value and notifies the change
+	 * 
+	 * @param key
+	 *            : key loaded
+	 * @param value
+	 *            : value for the key, null if the property was not found
+	 * @param evictable
+	 *            : was the value read by a loader (that can read it again)
+	 */
+	private void putProperty(String key, Property<?> value, boolean evictable) {
+		PropertyChangeEvent event;
+		synchronized (writeLock) {
+			sweepStaleProperties();
+			event = storeProperty(key, value, evictable);
 		}
+		firePropertyChange(event);
+	}
 
-		if (value == null) {
-			// put an item not found to not search again for the same value
-			loadedProperties.put(key, ITEM_NOT_FOUND);
+	/**
+	 * Stores a property value (called under the write lock)
+	 * 
+	 * @param key
+	 *            : key loaded
+	 * @param value
+	 *            : value for the key, null if the property was not found
+	 * @param evictable
+	 *            : was the value read by a loader (that can read it again)
+	 * @return - the change event to fire once the lock is released, null if
+	 *         none
+	 */
+	private PropertyChangeEvent storeProperty(String key, Property<?> value,
+			boolean evictable) {
+		Slot oldSlot;
+		if (value == null || isUnfoundProperty(value)) {
+			// remember the key not found to not search again for it
+			oldSlot = removeSlot(key);
+			storeUnfound(key);
 		} else {
-			loadedProperties.put(key, value);
+			oldSlot = storeSlot(key, newSlot(key, value, evictable));
+			unfoundProperties.remove(key);
+		}
+
+		// compute the old user value (a property from a previous
+		// generation still gives the value the listeners knew)
+		Object oldValue = null;
+		if (oldSlot != null) {
+			oldValue = oldSlot.property.getValue();
 		}
 
 		// compute the user value
@@ -86,8 +231,267 @@ public class ResourcesContainer {
 			newValue = value.getValue();
 		}
 
-		// fire a property change of values only
-		support.firePropertyChange(key, oldValue, newValue);
+		// a property change of values only
+		return newChangeEvent(key, oldValue, newValue);
+	}
+
+	/**
+	 * Fills the container with a property read for the first time (cache
+	 * population). No event is fired, as the value did not change for the
+	 * listeners : they either never got a value for that key or were notified
+	 * that the container was cleared. If the key already has a value in the
+	 * current generation, this method behaves as
+	 * {@link #addResolvedProperty(String, Property)}.
+	 * 
+	 * @param key
+	 *            : key loaded
+	 * @param value
+	 *            : value for the key, null if the property was not found
+	 */
+	public void fillProperty(String key, Property<?> value) {
+		PropertyChangeEvent event = null;
+		synchronized (writeLock) {
+			sweepStaleProperties();
+			Slot oldSlot = loadedProperties.get(key);
+			Unfound oldUnfound = unfoundProperties.get(key);
+			if ((oldSlot != null && oldSlot.generation == generation)
+					|| (oldUnfound != null && oldUnfound.generation == generation)) {
+				// the key is already known : this is a change
+				event = storeProperty(key, value, true);
+			} else if (value == null || isUnfoundProperty(value)) {
+				removeSlot(key);
+				storeUnfound(key);
+			} else {
+				storeSlot(key, newSlot(key, value, true));
+				unfoundProperties.remove(key);
+			}
+		}
+		firePropertyChange(event);
+	}
+
+	/**
+	 * Builds the slot of a property in the current generation
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @param value
+	 *            : value for the key
+	 * @param evictable
+	 *            : was the value read by a loader
+	 * @return - the slot (holding an eviction node if the memory is bounded)
+	 */
+	private Slot newSlot(String key, Property<?> value, boolean evictable) {
+		EvictionPolicy.Node node = null;
+		if (evictable && evictionPolicy != null) {
+			node = evictionPolicy.newNode(key, value.getValue());
+		}
+		return new Slot(value, generation, evictable, node);
+	}
+
+	/**
+	 * Stores a slot, and evicts silently the properties exceeding the memory
+	 * budget (called under the write lock)
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @param slot
+	 *            : slot to store
+	 * @return - the slot replaced (null if none)
+	 */
+	private Slot storeSlot(String key, Slot slot) {
+		Slot oldSlot = loadedProperties.put(key, slot);
+		if (evictionPolicy != null) {
+			if (oldSlot != null && oldSlot.node != null) {
+				evictionPolicy.remove(oldSlot.node);
+			}
+			if (slot.node != null) {
+				for (EvictionPolicy.Node victim : evictionPolicy.add(slot.node)) {
+					Slot victimSlot = loadedProperties.get(victim.key);
+					if (victimSlot != null && victimSlot.node == victim) {
+						loadedProperties.remove(victim.key);
+					}
+				}
+			}
+		}
+		return oldSlot;
+	}
+
+	/**
+	 * Removes the slot of a property (called under the write lock)
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @return - the slot removed (null if none)
+	 */
+	private Slot removeSlot(String key) {
+		Slot oldSlot = loadedProperties.remove(key);
+		if (evictionPolicy != null && oldSlot != null && oldSlot.node != null) {
+			evictionPolicy.remove(oldSlot.node);
+		}
+		return oldSlot;
+	}
+
+	/**
+	 * Remembers a key not found, and forgets the oldest ones beyond the
+	 * maximum number of keys (called under the write lock)
+	 * 
+	 * @param key
+	 *            : key not found
+	 */
+	private void storeUnfound(String key) {
+		if (unfoundCacheSize > 0) {
+			long timeToLive = unfoundTimeToLive;
+			long expiry = 0;
+			if (timeToLive > 0) {
+				// never 0, that means no expiry
+				expiry = (System.nanoTime() + timeToLive) | 1;
+			}
+			Unfound unfound = new Unfound(key, generation, expiry);
+			unfoundProperties.put(key, unfound);
+			unfoundOrder.addLast(unfound);
+		} else {
+			unfoundProperties.remove(key);
+		}
+		trimUnfound();
+	}
+
+	/**
+	 * Forgets the oldest keys not found beyond the maximum number of keys
+	 * (called under the write lock)
+	 */
+	private void trimUnfound() {
+		while (unfoundProperties.size() > unfoundCacheSize
+				&& !unfoundOrder.isEmpty()) {
+			Unfound oldest = unfoundOrder.pollFirst();
+			if (unfoundProperties.get(oldest.key) == oldest) {
+				unfoundProperties.remove(oldest.key);
+			}
+		}
+		if (unfoundOrder.size() > 2 * unfoundProperties.size() + 64) {
+			// drop the entries replaced since they were queued
+			int count = unfoundOrder.size();
+			for (int i = 0; i < count; i++) {
+				Unfound unfound = unfoundOrder.pollFirst();
+				if (unfoundProperties.get(unfound.key) == unfound) {
+					unfoundOrder.addLast(unfound);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the maximum number of keys not found remembered (the oldest ones are
+	 * forgotten first)
+	 * 
+	 * @param size
+	 *            : maximum number of keys, 0 to never remember them (see
+	 *            {@link #DEFAULT_UNFOUND_CACHE_SIZE})
+	 * @throws IllegalArgumentException
+	 *             if the size is negative
+	 */
+	public void setUnfoundCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException(getClass().getName()
+					+ "- setUnfoundCacheSize(): The size can not be negative");
+		}
+		synchronized (writeLock) {
+			unfoundCacheSize = size;
+			trimUnfound();
+		}
+	}
+
+	/**
+	 * Sets the time a key not found is remembered : the loaders search it again
+	 * once it expired. It applies to the keys not found from now on.
+	 * 
+	 * @param timeToLive
+	 *            : time to live, in milliseconds, 0 or less for ever
+	 */
+	public void setUnfoundTimeToLive(long timeToLive) {
+		unfoundTimeToLive = timeToLive > 0 ? TimeUnit.MILLISECONDS
+				.toNanos(timeToLive) : 0;
+	}
+
+	/**
+	 * Bounds the memory of the properties read by the loaders : when their
+	 * total weight exceeds the budget, the properties that are rarely used are
+	 * evicted silently (the loaders read them again on their next use). The
+	 * properties added by the users (see {@link #addProperty(String, Property)})
+	 * are never evicted, and are not counted in the budget. The usage frequency
+	 * sketch of the eviction is counted in the budget as bytes, so the weigher
+	 * should weigh the values in bytes too.
+	 * 
+	 * @param maximumWeight
+	 *            : maximum total weight of the properties read by the
+	 *            loaders, 0 or less to remove the bound
+	 * @param weigher
+	 *            : weigher of the property values (unused when the bound is
+	 *            removed)
+	 * @throws IllegalArgumentException
+	 *             if the weigher is null while the weight is bounded
+	 */
+	public void setMemoryBudget(long maximumWeight, PropertyWeigher weigher) {
+		if (maximumWeight > 0 && weigher == null) {
+			throw new IllegalArgumentException(getClass().getName()
+					+ "- setMemoryBudget(): The weigher can not be null");
+		}
+		synchronized (writeLock) {
+			evictionPolicy = null;
+			if (maximumWeight > 0) {
+				evictionPolicy = new EvictionPolicy(maximumWeight, weigher);
+			}
+			// weigh again the properties read by the loaders
+			List<String> keys = new ArrayList<String>(loadedProperties
+					.keySet());
+			for (String key : keys) {
+				Slot slot = loadedProperties.get(key);
+				if (slot != null && slot.evictable) {
+					EvictionPolicy.Node node = null;
+					if (evictionPolicy != null) {
+						node = evictionPolicy.newNode(key, slot.property
+								.getValue());
+					}
+					storeSlot(key, new Slot(slot.property, slot.generation,
+							true, node));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the total weight of the properties that may be evicted
+	 * 
+	 * @return - the total weight (including the usage frequency sketch), or 0
+	 *         if the memory is not bounded
+	 */
+	public long getWeightedSize() {
+		synchronized (writeLock) {
+			return evictionPolicy == null ? 0 : evictionPolicy
+					.getTotalWeight();
+		}
+	}
+
+	/**
+	 * Notifies the listeners that the value of a property was completed in
+	 * place (an image loaded in background for instance). The event old value
+	 * is null, as the value instance did not change. Nothing is fired when the
+	 * key no longer holds that value.
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @param value
+	 *            : value completed
+	 */
+	public void firePropertyCompleted(String key, Object value) {
+		boolean held;
+		synchronized (writeLock) {
+			Slot slot = loadedProperties.get(key);
+			held = slot != null && slot.generation == generation
+					&& slot.property.getValue() == value;
+		}
+		if (held) {
+			firePropertyChange(newChangeEvent(key, null, value));
+		}
 	}
 
 	/**
@@ -102,6 +506,61 @@ public class ResourcesContainer {
 		addProperty(key, null);
 	}
 
+	/**
+	 * Removes a property from this container, so that it will be read again on
+	 * its next use
+	 * 
+	 * @param key
+	 *            : key of the property
+	 */
+	public void removeProperty(String key) {
+		PropertyChangeEvent event = null;
+		synchronized (writeLock) {
+			sweepStaleProperties();
+			Slot oldSlot = removeSlot(key);
+			unfoundProperties.remove(key);
+			if (oldSlot != null && oldSlot.generation == generation) {
+				// notify the removal
+				event = newChangeEvent(key, oldSlot.property.getValue(), null);
+			}
+		}
+		firePropertyChange(event);
+	}
+
+	/**
+	 * Builds the event of a property value change
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @param oldValue
+	 *            : previous value (null if none)
+	 * @param newValue
+	 *            : new value (null if none)
+	 * @return - the event, null if there is still no value
+	 */
+	private PropertyChangeEvent newChangeEvent(String key, Object oldValue,
+			Object newValue) {
+		if (oldValue == null && newValue == null) {
+			// still no value
+			return null;
+		}
+		return new PropertyChangeEvent(this, key, oldValue, newValue);
+	}
+
+	/**
+	 * Notifies the listeners of a property change, if the value really
+	 * changed. Never called under the write lock, so that the listeners can
+	 * use this container from any thread.
+	 * 
+	 * @param event
+	 *            : change event (null if none)
+	 */
+	private void firePropertyChange(PropertyChangeEvent event) {
+		if (event != null) {
+			support.firePropertyChange(event);
+		}
+	}
+
 	/**
 	 * Returns a property value
 	 * 
@@ -113,21 +572,103 @@ public class ResourcesContainer {
 	 *          that it is not an item not found. When you call it, verify both
 	 */
 	public Property<?> getProperty(String key) {
-		return loadedProperties.get(key);
+		Slot slot = loadedProperties.get(key);
+		if (slot == null) {
+			return getUnfoundProperty(key);
+		}
+		if (slot.generation != generation) {
+			// cleared since it was stored
+			return null;
+		}
+		if (slot.node != null) {
+			slot.node.recordAccess();
+		}
+		return slot.property;
+	}
+
+	/**
+	 * Returns the marker of a key not found, if it is still remembered
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @return - the item not found marker, or null if the key is unknown,
+	 *         expired or was cleared since it was stored
+	 */
+	private Property<?> getUnfoundProperty(String key) {
+		Unfound unfound = unfoundProperties.get(key);
+		if (unfound == null || unfound.generation != generation
+				|| (unfound.expiry != 0 && System.nanoTime() - unfound.expiry > 0)) {
+			return null;
+		}
+		return ITEM_NOT_FOUND;
+	}
+
+	/**
+	 * Returns a property value stored before the last clear operation, that was
+	 * not stored again since then. A loader may validate it again (by storing
+	 * it) rather than building a new value.
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @return - the value found or null (the property is unknown, was stored
+	 *         in the current generation or was not found)
+	 */
+	public Property<?> getStaleProperty(String key) {
+		Slot slot = loadedProperties.get(key);
+		if (slot == null || slot.generation == generation) {
+			return null;
+		}
+		return slot.property;
+	}
+
+	/**
+	 * Drops a few properties and keys not found of the previous generations,
+	 * when a clear happened (called under the write lock). The keys are listed
+	 * on the first write following the clear, and checked by batches.
+	 */
+	private void sweepStaleProperties() {
+		if (sweepPending) {
+			sweepPending = false;
+			sweptKeys = new ArrayList<String>(loadedProperties.keySet());
+			sweptKeys.addAll(unfoundProperties.keySet());
+			sweepIndex = 0;
+		}
+		if (sweptKeys == null) {
+			return;
+		}
+		int end = Math.min(sweptKeys.size(), sweepIndex + SWEEP_BATCH_SIZE);
+		for (; sweepIndex < end; sweepIndex++) {
+			String key = sweptKeys.get(sweepIndex);
+			Slot slot = loadedProperties.get(key);
+			if (slot != null && slot.generation != generation) {
+				removeSlot(key);
+			}
+			Unfound unfound = unfoundProperties.get(key);
+			if (unfound != null && unfound.generation != generation) {
+				unfoundProperties.remove(key);
+			}
+		}
+		if (sweepIndex == sweptKeys.size()) {
+			sweptKeys = null;
+		}
 	}
 
 	/**
 	 * Clear properties - this method will force every properties to be reloded
-	 * after on
+	 * after on. It only starts a new generation (the properties are not
+	 * walked) and notifies the reset with a single property change event,
+	 * whose property name is null. The properties of the previous generations
+	 * are dropped by the following write operations (see
+	 * {@link #getStaleProperty(String)} for the ones re-read meanwhile).
 	 * 
 	 */
 	public void clearProperties() {
-		for (String key : loadedProperties.keySet()) {
-			// notify clearing
-			addProperty(key, null);
+		synchronized (writeLock) {
+			generation++;
+			sweepPending = true;
 		}
-		// clear the map
-		loadedProperties.clear();
+		// notify clearing
+		firePropertyChange(new PropertyChangeEvent(this, null, null, null));
 	}
 
 	/**
@@ -154,6 +695,19 @@ public class ResourcesContainer {
 		getInstance().addProperty(key);
 	}
 
+	/**
+	 * Fills the instance with a property read for the first time
+	 * 
+	 * @param key
+	 *            : key loaded
+	 * @param value
+	 *            : value for the key, null if the property was not found
+	 * @see #fillProperty(String, Property)
+	 */
+	public static void fillPropertyI(String key, Property<?> value) {
+		getInstance().fillProperty(key, value);
+	}
+
 	/**
 	 * Returns a property value from the instance
 	 * 
@@ -260,10 +814,91 @@ public class ResourcesContainer {
 	 * @return - the singleton instance
 	 */
 	public static ResourcesContainer getInstance() {
-		if (__instance == null) {
-			__instance = new ResourcesContainer();
+		return InstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Property stored in the container, stamped with the generation it was
+	 * stored in
+	 */
+	private static final class Slot {
+
+		/** Property stored **/
+		private final Property<?> property;
+
+		/** Generation of the container when the property was stored **/
+		private final long generation;
+
+		/** Was the property read by a loader (that can read it again) **/
+		private final boolean evictable;
+
+		/** Eviction node of the property, null if it can not be evicted **/
+		private final EvictionPolicy.Node node;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param property
+		 *            : see attribute
+		 * @param generation
+		 *            : see attribute
+		 * @param evictable
+		 *            : see attribute
+		 * @param node
+		 *            : see attribute
+		 */
+		private Slot(Property<?> property, long generation, boolean evictable,
+				EvictionPolicy.Node node) {
+			this.property = property;
+			this.generation = generation;
+			this.evictable = evictable;
+			this.node = node;
+		}
+
+	}
+
+	/**
+	 * Key that was not found, stamped with the generation it was stored in
+	 */
+	private static final class Unfound {
+
+		/** Key not found **/
+		private final String key;
+
+		/** Generation of the container when the key was stored **/
+		private final long generation;
+
+		/** Expiry date, in nanoseconds (0 if it never expires) **/
+		private final long expiry;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param key
+		 *            : see attribute
+		 * @param generation
+		 *            : see attribute
+		 * @param expiry
+		 *            : see attribute
+		 */
+		private Unfound(String key, long generation, long expiry) {
+			this.key = key;
+			this.generation = generation;
+			this.expiry = expiry;
 		}
-		return __instance;
+
+	}
+
+	/**
+	 * Lazy holder for the singleton instance : the class initialization grants
+	 * that the instance is built once and safely published to every thread
+	 */
+	private static class InstanceHolder {
+
+		/** Singleton instance **/
+		private static final ResourcesContainer INSTANCE = new ResourcesContainer(
+				true);
+
 	}
 
 }
@@ -0,0 +1,50 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * Property value returned before being complete, and completed later in
+ * background (see {@link loader.standard.readers.AsyncImageIconReader}). When
+ * the {@link BasicResourcesLoader} reads such a value, it notifies the
+ * listeners of its container once the value is complete (see
+ * {@link container.ResourcesContainer#firePropertyCompleted(String, Object)}),
+ * or its error listeners if the value can not be completed.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public interface AsynchronousValue {
+
+	/**
+	 * Is the value complete
+	 * 
+	 * @return - true if the value was completed
+	 */
+	boolean isComplete();
+
+	/**
+	 * Adds a listener notified once the value is complete or failed (right now
+	 * if it is already the case)
+	 * 
+	 * @param listener
+	 *            : completion listener
+	 */
+	void addCompletionListener(ICompletionListener listener);
+
+}
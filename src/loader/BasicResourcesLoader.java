@@ -17,25 +17,41 @@
  **/
 package loader;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import loader.PropertyFileStack.Candidate;
+import loader.PropertySnapshot.SnapshotValue;
 import loader.error.BadPropertyFormatError;
 import loader.error.ILoaderErrorListener;
+import loader.file.PropertyFileParser;
+import loader.file.PropertyTable;
+import loader.standard.readers.direct.conversion.IDirectValueConverter;
+import container.PrimitiveProperty;
 import container.Property;
 import container.ResourcesContainer;
 
@@ -53,21 +69,56 @@ import container.ResourcesContainer;
  * containing valid property. This allows embedding in applications a read-only
  * property file that would be used as default values if the user can modify the
  * effective property file <br>
+ * - The property files use the {@link Properties} format. They are read as
+ * UTF-8 when they are valid UTF-8 files, as ISO-8859-1 otherwise (see
+ * {@link PropertyFileParser}). A literal value is only decoded when the
+ * property is first resolved. When the memory mapping mode is on, the files
+ * found on the file system are memory mapped instead of being read in the
+ * heap (see {@link #setMemoryMapping(boolean)}). <br>
  * - The property files are loaded from the classpath. This means that the first
  * file with the file name provided will be parsed an not others. In most of the
  * cases (if you have not configured your project differently) the first
  * classpath elements that will get tested are the application ones so you could
  * replace any property files defined by included Jars. - When adding a new
- * property file, every known files are cleared. Therefore you should try to add
- * all property files as soon as possible (otherwise the loader will probably
- * search many times the same properties).<br>
+ * property file, the known properties it defines are resolved again (the
+ * other ones can not change). Only the properties whose value really changed
+ * are notified by the container. You should still try to add all property
+ * files as soon as possible (otherwise the loader will probably search many
+ * times the same properties). Many files can be added at once (see
+ * {@link #addPropertyFiles(List, int)}) : they are read in parallel. Files
+ * whose properties are rarely used can also be registered lazily (see
+ * {@link #addLazyPropertyFile(String, int)}) : they are only read when a
+ * lookup reaches them. At last, the files can be compiled in a binary snapshot
+ * that a later run loads without parsing anything (see
+ * {@link #compileSnapshot(File)}).<br>
+ * - A file can be reloaded when it changed (see
+ * {@link #reloadPropertyFile(String)}), and the loader can watch its files to
+ * reload them automatically (see {@link #startWatching(long)}). Only the
+ * properties whose value really changed are notified by the container.<br>
+ * - The properties read very often should be accessed through a
+ * {@link PropertyHandle} (see {@link #getHandle(String, PropertyReader)}),
+ * that caches their value until it changes.<br>
+ * - When many keys share the same literal values, the values read by the
+ * {@link ImmutablePropertyReader}s can be shared between those keys (see
+ * {@link #setInterningCacheSize(int)}) : each literal is then read once.<br>
+ * - A reader may return a value completed later in background (see
+ * {@link AsynchronousValue}) : the container listeners are then notified once
+ * the value is complete.<br>
  * - You can decide to export one of the property files you added at any time.
  * This functionality meets the particular need to leave the user or the
  * application editing properties and then save them. When exporting the file,
  * the toString() method will be called for any known property - this means the
  * property will have the first {@link ResourcesContainer} valid value OR the
  * invalid value of the property file. This also means that a property reader
- * should always be able to read the toString() value.
+ * should always be able to read the toString() value.<br>
+ * - The loader can be shared between threads : adding a file publishes a new
+ * immutable version of the property files stack, that the property lookups
+ * read without taking any lock. Therefore files can be registered late (by
+ * plugins for instance) while other threads keep on reading properties.<br>
+ * - Each loader caches the properties it reads in its own
+ * {@link ResourcesContainer} (by default, the container singleton instance).
+ * Adding a file to a loader only invalidates the properties of its container,
+ * so that loaders using different containers never flush each other caches.
  * 
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
@@ -75,32 +126,87 @@ import container.ResourcesContainer;
 public class BasicResourcesLoader {
 
 	/** Class loader for this resource loader **/
-	private ClassLoader classLoader;
+	private volatile ClassLoader classLoader;
 
-	/** List of property aggregation loaded, sorted by file name **/
-	private final Map<String, Properties> knownPropertyFiles;
+	/** Container for the properties read by this loader **/
+	private final ResourcesContainer container;
 
 	/** List of listeners for the errors that occur while loading properties **/
 	private final Collection<ILoaderErrorListener> _errorListeners;
 
 	/**
-	 * List of property files available for the loader. Those files will be
-	 * loaded using the class loader. Therefore it might be relative paths or
-	 * file name only. Greater is its index in the list, greater is the file
-	 * priority. It involves, for instance, that if the key
+	 * Current version of the property files available for the loader. Those
+	 * files will be loaded using the class loader. Therefore it might be
+	 * relative paths or file name only. Greater is its index in the list,
+	 * greater is the file priority. It involves, for instance, that if the key
 	 * "myapplication.title" is defined in files(0) and in files(3), the
 	 * property value will be the one defined in file(3)).
 	 */
-	private final List<String> propertyFiles;
+	private volatile PropertyFileStack fileStack;
+
+	/** Lock serializing the changes of the property files stack **/
+	private final Object filesLock;
+
+	/** Should the files added be memory mapped when possible **/
+	private volatile boolean memoryMapping;
 
 	/**
-	 * Constructor
+	 * Values shared between the keys defined by the same literal, null when
+	 * disabled
+	 */
+	private volatile InterningCache interningCache;
+
+	/** Typed values of the snapshot loaded, sorted by key (unmodifiable) **/
+	private volatile Map<String, SnapshotValue> snapshotValues;
+
+	/** Watcher of the property files, null when they are not watched **/
+	private PropertyFileWatcher watcher;
+
+	/**
+	 * Readers used to resolve the properties found, sorted by key (allows
+	 * resolving again a property when a file that defines it changes). The
+	 * keys not found are not recorded : the handles hold the reader of the
+	 * missing keys that are still watched.
+	 */
+	private final ConcurrentMap<String, PropertyReader<?>> propertyReaders;
+
+	/** Handles created by this loader, sorted by key **/
+	private final ConcurrentMap<String, PropertyHandle<?>> handles;
+
+	/**
+	 * Listener of the container that invalidates the handles, null until the
+	 * first handle is created
+	 */
+	private PropertyChangeListener handlesInvalidator;
+
+	/**
+	 * Constructor - the properties read are stored in the
+	 * {@link ResourcesContainer} singleton instance
 	 */
 	public BasicResourcesLoader() {
-		propertyFiles = new ArrayList<String>();
-		knownPropertyFiles = new HashMap<String, Properties>();
+		this(ResourcesContainer.getInstance());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param container
+	 *            : container in which properties read should be stored
+	 * @throws IllegalArgumentException
+	 *             if the container is null
+	 */
+	public BasicResourcesLoader(ResourcesContainer container) {
+		if (container == null) {
+			throw new IllegalArgumentException("The container can not be null");
+		}
+		this.container = container;
+		fileStack = PropertyFileStack.EMPTY;
+		filesLock = new Object();
+		propertyReaders = new ConcurrentHashMap<String, PropertyReader<?>>();
+		handles = new ConcurrentHashMap<String, PropertyHandle<?>>();
+		snapshotValues = Collections.emptyMap();
 		classLoader = ClassLoader.getSystemClassLoader();
-		_errorListeners = new ArrayList<ILoaderErrorListener>();
+		_errorListeners = new CopyOnWriteArrayList<ILoaderErrorListener>();
 	}
 
 	/**
@@ -124,57 +230,557 @@ public class BasicResourcesLoader {
 			throw new IllegalArgumentException("The file name cannot be null");
 		}
 
-		if (index < -1 || index > propertyFiles.size()) {
+		synchronized (filesLock) {
+			if (index < -1 || index > fileStack.size()) {
+				throw new IllegalArgumentException(
+						"The index provided is out of the files list indices");
+			}
+
+			// do not add a file already known
+			if (isFileLoaded(fileName)) {
+				return;
+			}
+
+			// verify file existence
+			URL resourceURL = classLoader.getResource(fileName);
+			if (resourceURL == null) {
+				fireFileNotFound(fileName);
+				return;
+			}
+			// build the properties
+			try {
+				PropertyTable fileContent = readFile(resourceURL,
+						memoryMapping);
+				// publish the new files stack version
+				fileStack = fileStack.withFile(fileName, fileContent, index);
+
+				// revalidate property data
+				mapsDataInvalidated(Collections.singletonList(fileName));
+			} catch (IllegalArgumentException excepion) {
+				fireCouldNotRead(fileName);
+			} catch (IOException exception) {
+				fireCouldNotRead(fileName);
+			}
+		}
+	}
+
+	/**
+	 * Adds an available property file to the loader, without reading it. The
+	 * file will be read the first time a property lookup reaches it (that is
+	 * when no more important file defines a valid value for the property).
+	 * Meanwhile, a background thread reads it ahead of the lookups. The file is
+	 * retrieved using the classpath.<br>
+	 * Once the file is read, the known properties it defines are resolved
+	 * again (see {@link #addPropertyFile(String, int)}) : until then, the
+	 * properties read before it was added keep their value.
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @param index
+	 *            : index in the property files list. Provide -1 to add it at
+	 *            list end
+	 * @throws IllegalArgumentException
+	 *             if the file name is null or the file index is out of bounds
+	 */
+	public void addLazyPropertyFile(String fileName, int index) {
+
+		// verify parameters
+		if (fileName == null) {
+			throw new IllegalArgumentException("The file name cannot be null");
+		}
+
+		synchronized (filesLock) {
+			if (index < -1 || index > fileStack.size()) {
+				throw new IllegalArgumentException(
+						"The index provided is out of the files list indices");
+			}
+
+			// do not add a file already known
+			if (isFileLoaded(fileName)) {
+				return;
+			}
+
+			// verify file existence
+			URL resourceURL = classLoader.getResource(fileName);
+			if (resourceURL == null) {
+				fireFileNotFound(fileName);
+				return;
+			}
+
+			// publish the new files stack version
+			LazyPropertyFile lazyFile = new LazyPropertyFile(resourceURL,
+					memoryMapping, new Runnable() {
+						/**
+						 * {@inherit}
+						 */
+						@Override
+						public void run() {
+							publishReadLazyFiles();
+						}
+					});
+			fileStack = fileStack.withLazyFile(fileName, lazyFile, index);
+			lazyFile.scheduleReading();
+		}
+	}
+
+	/**
+	 * Adds an available property file to the loader as most important one,
+	 * without reading it
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @see #addLazyPropertyFile(String, int)
+	 */
+	public void addLazyPropertyFile(String fileName) {
+		addLazyPropertyFile(fileName, -1);
+	}
+
+	/**
+	 * Adds available property files to the loader. Those files will later be
+	 * retrieved using the classpath. The files are read in parallel, then
+	 * published at once : the known properties they define are resolved
+	 * again in a single pass.
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority. Files already known are
+	 *            ignored
+	 * @param index
+	 *            : index of the first file in the property files list. Provide
+	 *            -1 to add them at list end
+	 * @note : this method should be called at application start for more
+	 *       efficiency (otherwise all key may need to be verified)
+	 * @throws IllegalArgumentException
+	 *             if the file names list or one of its elements is null or the
+	 *             files index is out of bounds
+	 */
+	public void addPropertyFiles(List<String> fileNames, int index) {
+
+		// verify parameters
+		if (fileNames == null) {
 			throw new IllegalArgumentException(
-					"The index provided is out of the files list indices");
+					"The file names list cannot be null");
+		}
+		for (String fileName : fileNames) {
+			if (fileName == null) {
+				throw new IllegalArgumentException(
+						"The file name cannot be null");
+			}
 		}
 
-		// do not add a file already known
-		if (isFileLoaded(fileName)) {
-			return;
+		synchronized (filesLock) {
+			if (index < -1 || index > fileStack.size()) {
+				throw new IllegalArgumentException(
+						"The index provided is out of the files list indices");
+			}
+
+			// verify files existence (do not add a file already known)
+			List<String> addedFileNames = new ArrayList<String>();
+			List<URL> resourceURLs = new ArrayList<URL>();
+			Set<String> requestedFileNames = new HashSet<String>();
+			for (String fileName : fileNames) {
+				if (isFileLoaded(fileName)
+						|| !requestedFileNames.add(fileName)) {
+					continue;
+				}
+				URL resourceURL = classLoader.getResource(fileName);
+				if (resourceURL == null) {
+					fireFileNotFound(fileName);
+					continue;
+				}
+				addedFileNames.add(fileName);
+				resourceURLs.add(resourceURL);
+			}
+
+			// build the properties
+			List<PropertyTable> fileContents = readFiles(resourceURLs);
+			for (int i = fileContents.size() - 1; i >= 0; i--) {
+				if (fileContents.get(i) == null) {
+					fireCouldNotRead(addedFileNames.get(i));
+					addedFileNames.remove(i);
+					fileContents.remove(i);
+				}
+			}
+			if (addedFileNames.isEmpty()) {
+				return;
+			}
+
+			// publish the new files stack version
+			fileStack = fileStack.withFiles(addedFileNames, fileContents,
+					index);
+
+			// revalidate property data
+			mapsDataInvalidated(addedFileNames);
 		}
+	}
 
-		// verify file existence
-		InputStream resourceAsStream = classLoader
-				.getResourceAsStream(fileName);
-		if (resourceAsStream == null) {
-			fireFileNotFound(fileName);
-			return;
+	/**
+	 * Adds available property files to the loader as most important ones.
+	 * Those files will later be retrieved using the classpath
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority
+	 * @see #addPropertyFiles(List, int)
+	 */
+	public void addPropertyFiles(List<String> fileNames) {
+		addPropertyFiles(fileNames, -1);
+	}
+
+	/**
+	 * Reads property files in parallel
+	 * 
+	 * @param resourceURLs
+	 *            : files URLs
+	 * @return - the properties of each file (null for the files that could
+	 *         not be read)
+	 */
+	private List<PropertyTable> readFiles(List<URL> resourceURLs) {
+		List<PropertyTable> fileContents = new ArrayList<PropertyTable>();
+		int threadsCount = Math.min(resourceURLs.size(), Runtime.getRuntime()
+				.availableProcessors());
+		if (threadsCount <= 1) {
+			// not worth a thread pool
+			for (URL resourceURL : resourceURLs) {
+				try {
+					fileContents.add(readFile(resourceURL, memoryMapping));
+				} catch (IllegalArgumentException e) {
+					fileContents.add(null);
+				} catch (IOException e) {
+					fileContents.add(null);
+				}
+			}
+			return fileContents;
 		}
-		// build the properties
+
+		final boolean mapFiles = memoryMapping;
+		ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
 		try {
-			Properties fileProperties = new Properties();
-			fileProperties.load(resourceAsStream);
-			// add the file
-			if (index == -1) {
-				propertyFiles.add(fileName);
-			} else {
-				propertyFiles.add(index, fileName);
+			List<Future<PropertyTable>> readings = new ArrayList<Future<PropertyTable>>();
+			for (final URL resourceURL : resourceURLs) {
+				readings.add(executor.submit(new Callable<PropertyTable>() {
+					/**
+					 * {@inherit}
+					 */
+					@Override
+					public PropertyTable call() throws IOException {
+						return readFile(resourceURL, mapFiles);
+					}
+				}));
+			}
+			for (Future<PropertyTable> reading : readings) {
+				try {
+					fileContents.add(reading.get());
+				} catch (ExecutionException e) {
+					fileContents.add(null);
+				} catch (InterruptedException e) {
+					// stop waiting : remaining files are not read
+					Thread.currentThread().interrupt();
+					fileContents.add(null);
+				}
 			}
-			// store the new file properties
-			knownPropertyFiles.put(fileName, fileProperties);
+		} finally {
+			executor.shutdownNow();
+		}
+		return fileContents;
+	}
 
-			// revalidate property data
-			mapsDataInvalidated();
-		} catch (IllegalArgumentException excepion) {
-			fireCouldNotRead(fileName);
-		} catch (IOException exception) {
-			fireCouldNotRead(fileName);
+	/**
+	 * Reads a property file : maps it in memory if the memory mapping mode is
+	 * on and the file is on the file system, reads its stream otherwise
+	 * 
+	 * @param resourceURL
+	 *            : file URL
+	 * @param memoryMapping
+	 *            : is the memory mapping mode on
+	 * @return - the file properties
+	 * @throws IOException
+	 *             if the file can not be read
+	 * @throws IllegalArgumentException
+	 *             if the file content is invalid
+	 */
+	static PropertyTable readFile(URL resourceURL, boolean memoryMapping)
+			throws IOException {
+		if (memoryMapping && "file".equals(resourceURL.getProtocol())) {
+			try {
+				return PropertyFileParser.map(new File(resourceURL.toURI()));
+			} catch (URISyntaxException e) {
+				// not a file path : read the stream
+			}
+		}
+		return PropertyFileParser.parse(resourceURL.openStream());
+	}
+
+	/**
+	 * The maps data has been invalidated by files addition, update it. Only
+	 * the known properties defined in the new files may change : they are
+	 * resolved again with the reader that first loaded them (the container
+	 * notifies the listeners only if the resulting value differs)
+	 * 
+	 * @param fileNames
+	 *            : the property files added
+	 * 
+	 */
+	private void mapsDataInvalidated(List<String> fileNames) {
+		PropertyFileStack stack = fileStack;
+		for (String fileName : fileNames) {
+			mapsDataInvalidated(stack, stack.getFileContent(fileName));
+		}
+		publishReadLazyFiles();
+	}
+
+	/**
+	 * Publishes a files stack version where the lazy files read (by the
+	 * lookups or ahead of them) are indexed, and resolves again the known
+	 * properties they define. Notifies the listeners of the files that could
+	 * not be read.
+	 */
+	private void publishReadLazyFiles() {
+		while (hasReadLazyFiles(fileStack)) {
+			synchronized (filesLock) {
+				PropertyFileStack previousStack = fileStack;
+				fileStack = previousStack.withReadLazyFiles();
+				PropertyFileStack stack = fileStack;
+				for (Map.Entry<String, LazyPropertyFile> entry : previousStack
+						.getLazyFiles().entrySet()) {
+					if (stack.getLazyFiles().containsKey(entry.getKey())) {
+						// still pending
+						continue;
+					}
+					if (entry.getValue().isReadFailed()) {
+						fireCouldNotRead(entry.getKey());
+					} else {
+						// resolving those properties may read other files
+						mapsDataInvalidated(stack, entry.getValue()
+								.getContent());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Has a lazy file of a files stack version been read since the version
+	 * was built
+	 * 
+	 * @param stack
+	 *            : files stack version
+	 * @return - true if one of its lazy files was read
+	 */
+	private static boolean hasReadLazyFiles(PropertyFileStack stack) {
+		for (LazyPropertyFile lazyFile : stack.getLazyFiles().values()) {
+			if (lazyFile.isRead()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Resolves again the known properties defined in an added file
+	 * 
+	 * @param stack
+	 *            : files version including the added file
+	 * @param fileContent
+	 *            : properties of the added file
+	 */
+	private void mapsDataInvalidated(PropertyFileStack stack,
+			PropertyTable fileContent) {
+		for (int entry = 0; entry < fileContent.size(); entry++) {
+			revalidateProperty(fileContent.getKey(entry), stack);
+		}
+	}
+
+	/**
+	 * Resolves again a known property, whose definitions changed. A property
+	 * read before but no longer in the container (evicted or cleared) is
+	 * resolved too, so that its listeners and handles see the new value.
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param stack
+	 *            : files version holding the new definitions
+	 */
+	private void revalidateProperty(String key, PropertyFileStack stack) {
+		Property<?> currentValue = container.getProperty(key);
+		PropertyReader<?> reader = propertyReaders.get(key);
+		if (reader == null) {
+			// a missing key is still watched through its handle, even if
+			// the container forgot it was not found
+			PropertyHandle<?> handle = handles.get(key);
+			if (handle != null) {
+				reader = handle.getReader();
+			}
+		}
+		if (reader == null) {
+			if (currentValue != null) {
+				// the value does not come from this loader : forget it
+				container.removeProperty(key);
+			}
+			// else not read yet, it will be resolved on its first use
+			return;
+		}
+		Property<?> newValue = getBasicProperty(key, reader, stack,
+				currentValue, true);
+		container.addResolvedProperty(key, newValue);
+		if (newValue == null) {
+			propertyReaders.remove(key);
+		}
+		if (newValue != currentValue) {
+			notifyCompletion(key, newValue, stack);
+		}
+	}
+
+	/**
+	 * Reloads a property file that changed. The new file content is compared
+	 * with the previous one : only the known properties whose definition
+	 * changed in the file are resolved again, and the container notifies the
+	 * listeners only for the values that really changed.
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @return - true if the file was reloaded, false if it could not be found
+	 *         or read (the error listeners are notified)
+	 * @throws IllegalArgumentException
+	 *             if the file name is null or unknown
+	 */
+	public boolean reloadPropertyFile(String fileName) {
+		if (fileName == null) {
+			throw new IllegalArgumentException("The file name cannot be null");
+		}
+		synchronized (filesLock) {
+			if (!isFileLoaded(fileName)) {
+				throw new IllegalArgumentException(
+						"Unknown file name. Has it been loaded correctly?");
+			}
+			URL resourceURL = classLoader.getResource(fileName);
+			if (resourceURL == null) {
+				fireFileNotFound(fileName);
+				return false;
+			}
+			PropertyTable newContent;
+			try {
+				newContent = readFile(resourceURL, memoryMapping);
+			} catch (IllegalArgumentException e) {
+				fireCouldNotRead(fileName);
+				return false;
+			} catch (IOException e) {
+				fireCouldNotRead(fileName);
+				return false;
+			}
+
+			// a lazy file not read yet did not define any known property
+			PropertyFileStack previousStack = fileStack;
+			PropertyTable previousContent = PropertyTable.EMPTY;
+			if (!previousStack.isLazyFilePending(fileName)) {
+				previousContent = previousStack.getFileContent(fileName);
+			}
+
+			// publish the new files stack version
+			fileStack = previousStack.withFileContent(fileName, newContent);
+
+			// revalidate the properties whose definition changed
+			PropertyFileStack stack = fileStack;
+			for (String key : getChangedKeys(previousContent, newContent)) {
+				revalidateProperty(key, stack);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the keys whose definition changed between two contents of a
+	 * file
+	 * 
+	 * @param previousContent
+	 *            : previous content of the file
+	 * @param newContent
+	 *            : new content of the file
+	 * @return - the keys added, removed or whose literal value changed
+	 */
+	private Set<String> getChangedKeys(PropertyTable previousContent,
+			PropertyTable newContent) {
+		Set<String> changedKeys = new HashSet<String>();
+		if (previousContent.isMapped()) {
+			// the mapped bytes may have been modified with the file : they
+			// can not be compared. Any known key may have changed
+			changedKeys.addAll(propertyReaders.keySet());
+			changedKeys.addAll(handles.keySet());
+			for (int entry = 0; entry < newContent.size(); entry++) {
+				changedKeys.add(newContent.getKey(entry));
+			}
+			return changedKeys;
+		}
+		for (int entry = 0; entry < newContent.size(); entry++) {
+			String key = newContent.getKey(entry);
+			int previousEntry = previousContent.find(key);
+			if (previousEntry == -1
+					|| !previousContent.getLiteral(previousEntry).equals(
+							newContent.getLiteral(entry))) {
+				changedKeys.add(key);
+			}
+		}
+		for (int entry = 0; entry < previousContent.size(); entry++) {
+			String key = previousContent.getKey(entry);
+			if (newContent.find(key) == -1) {
+				changedKeys.add(key);
+			}
 		}
+		return changedKeys;
 	}
 
 	/**
-	 * The maps data has been invalidated, update it
+	 * Starts watching the property files : the files found on the file
+	 * system are polled and reloaded when they change (see
+	 * {@link #reloadPropertyFile(String)}). A change is only applied once the
+	 * file did not change during a whole period, so that a file being written
+	 * is not read. When the memory mapping mode is on, the files should be
+	 * replaced rather than modified in place.
 	 * 
-	 * @param fileProperties
-	 *            : the property file added in properties form
+	 * @param period
+	 *            : polling period, in milliseconds
+	 * @throws IllegalArgumentException
+	 *             if the period is not strictly positive
+	 */
+	public void startWatching(long period) {
+		if (period <= 0) {
+			throw new IllegalArgumentException(
+					"The watching period must be strictly positive");
+		}
+		synchronized (filesLock) {
+			stopWatching();
+			watcher = new PropertyFileWatcher(this, period);
+		}
+	}
+
+	/**
+	 * Stops watching the property files
+	 */
+	public void stopWatching() {
+		synchronized (filesLock) {
+			if (watcher != null) {
+				watcher.stop();
+				watcher = null;
+			}
+		}
+	}
+
+	/**
+	 * Getter -
 	 * 
+	 * @return true if the property files are watched
 	 */
-	private void mapsDataInvalidated() {
+	public boolean isWatching() {
+		synchronized (filesLock) {
+			return watcher != null;
+		}
+	}
 
-		// clear the map to force next call to getProperty(...) reloading the
-		// whole list
-		ResourcesContainer.clearPropertiesI();
+	/**
+	 * Getter -
+	 * 
+	 * @return the current version of the property files
+	 */
+	PropertyFileStack getFileStack() {
+		return fileStack;
 	}
 
 	/**
@@ -202,16 +808,313 @@ public class BasicResourcesLoader {
 	public <T> T getProperty(String key, PropertyReader<T> reader) {
 
 		// Test parameters
+		checkLookupArguments("getProperty", key, reader);
+
+		Property<?> property = resolveProperty(key, reader, true);
+		if (property == null) {
+			return null;
+		}
+		// send the property value at the required type
+		return (T) property.getValue();
+	}
+
+	/**
+	 * Returns a property that may legitimately be absent : as
+	 * {@link #getProperty(String, PropertyReader)}, but the error listeners are
+	 * not notified when no file defines the key (they still are when its
+	 * values are invalid). Once the key is resolved, this lookup allocates
+	 * nothing.
+	 * 
+	 * @param <T>
+	 *            : type of property to read
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @return - the property value or null if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T findProperty(String key, PropertyReader<T> reader) {
+		checkLookupArguments("findProperty", key, reader);
+		Property<?> property = resolveProperty(key, reader, false);
+		if (property == null) {
+			return null;
+		}
+		return (T) property.getValue();
+	}
+
+	/**
+	 * Returns a property that may legitimately be absent, or a default value
+	 * (see {@link #findProperty(String, PropertyReader)})
+	 * 
+	 * @param <T>
+	 *            : type of property to read
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getPropertyOrDefault(String key, PropertyReader<T> reader,
+			T defaultValue) {
+		checkLookupArguments("getPropertyOrDefault", key, reader);
+		Property<?> property = resolveProperty(key, reader, false);
+		if (property == null) {
+			return defaultValue;
+		}
+		return (T) property.getValue();
+	}
+
+	/**
+	 * Returns a integer property. A property already resolved is read from
+	 * its primitive slot, without any allocation.
+	 * 
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 * @see #getProperty(String, PropertyReader)
+	 */
+	public int getIntProperty(String key, IntPropertyReader reader,
+			int defaultValue) {
+		Property<?> property = resolvePrimitiveProperty("getIntProperty", key,
+				reader, Integer.class);
+		if (property == null) {
+			return defaultValue;
+		}
+		if (property instanceof PrimitiveProperty) {
+			return ((PrimitiveProperty<?>) property).getIntValue();
+		}
+		// stored by a setter : unboxed
+		return ((Integer) property.getValue()).intValue();
+	}
+
+	/**
+	 * Returns a long property. A property already resolved is read from
+	 * its primitive slot, without any allocation.
+	 * 
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 * @see #getProperty(String, PropertyReader)
+	 */
+	public long getLongProperty(String key, LongPropertyReader reader,
+			long defaultValue) {
+		Property<?> property = resolvePrimitiveProperty("getLongProperty", key,
+				reader, Long.class);
+		if (property == null) {
+			return defaultValue;
+		}
+		if (property instanceof PrimitiveProperty) {
+			return ((PrimitiveProperty<?>) property).getLongValue();
+		}
+		// stored by a setter : unboxed
+		return ((Long) property.getValue()).longValue();
+	}
+
+	/**
+	 * Returns a float property. A property already resolved is read from
+	 * its primitive slot, without any allocation.
+	 * 
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 * @see #getProperty(String, PropertyReader)
+	 */
+	public float getFloatProperty(String key, FloatPropertyReader reader,
+			float defaultValue) {
+		Property<?> property = resolvePrimitiveProperty("getFloatProperty", key,
+				reader, Float.class);
+		if (property == null) {
+			return defaultValue;
+		}
+		if (property instanceof PrimitiveProperty) {
+			return ((PrimitiveProperty<?>) property).getFloatValue();
+		}
+		// stored by a setter : unboxed
+		return ((Float) property.getValue()).floatValue();
+	}
+
+	/**
+	 * Returns a double property. A property already resolved is read from
+	 * its primitive slot, without any allocation.
+	 * 
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 * @see #getProperty(String, PropertyReader)
+	 */
+	public double getDoubleProperty(String key, DoublePropertyReader reader,
+			double defaultValue) {
+		Property<?> property = resolvePrimitiveProperty("getDoubleProperty", key,
+				reader, Double.class);
+		if (property == null) {
+			return defaultValue;
+		}
+		if (property instanceof PrimitiveProperty) {
+			return ((PrimitiveProperty<?>) property).getDoubleValue();
+		}
+		// stored by a setter : unboxed
+		return ((Double) property.getValue()).doubleValue();
+	}
+
+	/**
+	 * Returns a boolean property. A property already resolved is read from
+	 * its primitive slot, without any allocation.
+	 * 
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property value or the default value if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 * @see #getProperty(String, PropertyReader)
+	 */
+	public boolean getBooleanProperty(String key, BooleanPropertyReader reader,
+			boolean defaultValue) {
+		Property<?> property = resolvePrimitiveProperty("getBooleanProperty", key,
+				reader, Boolean.class);
+		if (property == null) {
+			return defaultValue;
+		}
+		if (property instanceof PrimitiveProperty) {
+			return ((PrimitiveProperty<?>) property).getBooleanValue();
+		}
+		// stored by a setter : unboxed
+		return ((Boolean) property.getValue()).booleanValue();
+	}
+
+	/**
+	 * Returns the property for the key as parameter, that must hold a value
+	 * of the type as parameter
+	 * 
+	 * @param methodName
+	 *            : name of the lookup method, for the error messages
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : primitive property reader
+	 * @param valueType
+	 *            : boxed type of the values read by the reader
+	 * @return - the property or null if not found
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the property holds a value of another type
+	 */
+	private Property<?> resolvePrimitiveProperty(String methodName,
+			String key, PropertyReader<?> reader, Class<?> valueType) {
+		checkLookupArguments(methodName, key, reader);
+		Property<?> property = resolveProperty(key, reader, true);
+		if (property == null) {
+			return null;
+		}
+		Class<?> propertyType;
+		if (property instanceof PrimitiveProperty) {
+			propertyType = ((PrimitiveProperty<?>) property).getValueType();
+		} else {
+			// stored by a setter
+			Object value = property.getValue();
+			propertyType = value == null ? null : value.getClass();
+		}
+		if (propertyType != valueType) {
+			throw new IllegalArgumentException(getClass().getName() + "- "
+					+ methodName + "(): The property " + key
+					+ " does not hold a value of type "
+					+ valueType.getSimpleName());
+		}
+		return property;
+	}
+
+	/**
+	 * Tests the parameters of a property lookup
+	 * 
+	 * @param methodName
+	 *            : name of the lookup method, for the error messages
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null
+	 */
+	private void checkLookupArguments(String methodName, String key,
+			PropertyReader<?> reader) {
 		if (reader == null) {
-			throw new IllegalArgumentException(getClass().getName()
-					+ "- getProperty(): Property reader can not be null");
+			throw new IllegalArgumentException(getClass().getName() + "- "
+					+ methodName + "(): Property reader can not be null");
 		}
 		if (key == null) {
-			throw new IllegalArgumentException(getClass().getName()
-					+ "- getProperty(): Property key can not be null");
+			throw new IllegalArgumentException(getClass().getName() + "- "
+					+ methodName + "(): Property key can not be null");
 		}
+	}
 
-		Property<?> loadedKeyValue = ResourcesContainer.getPropertyI(key);
+	/**
+	 * Returns the property for the key as parameter, from the container or
+	 * from the files on first lookup
+	 * 
+	 * @param <T>
+	 *            : type of property to read
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @param notifyMissing
+	 *            : should the error listeners be notified when no file
+	 *            defines the key
+	 * @return - the property or null if not found
+	 */
+	private <T> Property<?> resolveProperty(String key,
+			PropertyReader<T> reader, boolean notifyMissing) {
+
+		Property<?> loadedKeyValue = container.getProperty(key);
 
 		if (ResourcesContainer.isUnfoundProperty(loadedKeyValue)) {
 			// A - the property has already been loaded but was not found
@@ -219,24 +1122,91 @@ public class BasicResourcesLoader {
 		}
 		// B - the property has correctly been loaded previously
 		if (loadedKeyValue != null) {
-			// send the property value at the required type
-			return (T) loadedKeyValue.getValue();
+			return loadedKeyValue;
 		}
 
-		// C - The property has never been loaded. Find and parse the property
-		// value
-		Property<T> basicPropertyValue = getBasicProperty(key, reader);
-		if (basicPropertyValue != null) {
-			// the property has been found, store it
-			ResourcesContainer.addPropertyI(key, basicPropertyValue);
-			// return the property found
-			return basicPropertyValue.getValue();
+		// C - The property has never been loaded (or the container was cleared
+		// since then, in which case the previous value is kept if its
+		// representation did not change). Find and parse the property
+		// value. When a file was added meanwhile, its invalidation may have
+		// missed the value stored : resolve it again on the new files version
+		propertyReaders.put(key, reader);
+		Property<?> staleValue = container.getStaleProperty(key);
+		PropertyFileStack stack;
+		Property<T> basicPropertyValue;
+		do {
+			stack = fileStack;
+			basicPropertyValue = getBasicProperty(key, reader, stack,
+					staleValue, notifyMissing);
+			// store the property found or, D - the property has been parsed
+			// but not found, an item not found. This fills the cache : no
+			// event is fired for a first resolution
+			container.fillProperty(key, basicPropertyValue);
+		} while (stack != fileStack);
+		if (basicPropertyValue == null) {
+			// only the keys found are recorded, so that their number stays
+			// bounded (a watched missing key is revalidated through its handle)
+			propertyReaders.remove(key, reader);
+		}
+		if (basicPropertyValue != staleValue) {
+			// once stored, so that an early completion is not missed
+			notifyCompletion(key, basicPropertyValue, stack);
 		}
+		publishReadLazyFiles();
 
-		// D - the property has been parsed but not found, store an item not
-		// found
-		ResourcesContainer.addPropertyI(key);
-		return null;
+		// return the property found (or null)
+		return basicPropertyValue;
+	}
+
+	/**
+	 * Returns the handle of a property : an accessor bound to the key and
+	 * reader as parameter, that caches the property value until it changes in
+	 * the container. A single handle exists for each key.
+	 * 
+	 * @param <T>
+	 *            : type of property to read
+	 * @param key
+	 *            : key
+	 * @param reader
+	 *            : property reader
+	 * @return - the property handle
+	 * @throws IllegalArgumentException
+	 *             - if the reader is null <br>
+	 *             - if the key is null <br>
+	 *             - if the handle of that key was created with another reader
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> PropertyHandle<T> getHandle(String key, PropertyReader<T> reader) {
+		if (reader == null) {
+			throw new IllegalArgumentException(getClass().getName()
+					+ "- getHandle(): Property reader can not be null");
+		}
+		if (key == null) {
+			throw new IllegalArgumentException(getClass().getName()
+					+ "- getHandle(): Property key can not be null");
+		}
+		PropertyHandle<?> handle = handles.get(key);
+		if (handle == null) {
+			synchronized (handles) {
+				if (handlesInvalidator == null) {
+					// the handles are invalidated by the container changes
+					handlesInvalidator = new HandlesInvalidator();
+					container.addPropertyChangeListener(handlesInvalidator);
+				}
+			}
+			PropertyHandle<T> newHandle = new PropertyHandle<T>(this, key,
+					reader);
+			handle = handles.putIfAbsent(key, newHandle);
+			if (handle == null) {
+				handle = newHandle;
+			}
+		}
+		if (handle.getReader() != reader) {
+			throw new IllegalArgumentException(getClass().getName()
+					+ "- getHandle(): The handle of " + key
+					+ " was created with another reader");
+		}
+		return (PropertyHandle<T>) handle;
 	}
 
 	/**
@@ -245,14 +1215,30 @@ public class BasicResourcesLoader {
 	 * 
 	 * @param key
 	 *            : key
+	 * @param reader
+	 *            : reader for the property
+	 * @param stack
+	 *            : files version to search in (a single version is used for
+	 *            the whole lookup, so that concurrent additions never
+	 *            interfere with it)
+	 * @param currentValue
+	 *            : value currently known for the key, returned as is if its
+	 *            representation is still the one found (null if none)
+	 * @param notifyMissing
+	 *            : should the listeners be notified when no file defines the
+	 *            key
 	 * @return - the value found or null if none
 	 */
+	@SuppressWarnings("unchecked")
 	private <T> Property<T> getBasicProperty(String key,
-			PropertyReader<T> reader) {
+			PropertyReader<T> reader, PropertyFileStack stack,
+			Property<?> currentValue, boolean notifyMissing) {
 
 		// counter for errors (allows to determinate a missing property)
 		int errorsCount = 0;
 
+		List<String> propertyFiles = stack.getFileNames();
+
 		// search in files for the property
 		if (propertyFiles.isEmpty()) {
 			// no property files defines
@@ -260,43 +1246,84 @@ public class BasicResourcesLoader {
 					+ " : no property file defined");
 		}
 
-		// iterator from more important file to less important one
-		for (ListIterator<String> fileNameIterator = propertyFiles
-				.listIterator(propertyFiles.size()); fileNameIterator
-				.hasPrevious();) {
+		// candidates from more important file to less important one
+		for (Candidate candidate : stack.getCandidates(key)) {
 
-			// retrieve the property set corresponding to that file
-			String fileName = fileNameIterator.previous();
-			Properties properties = knownPropertyFiles.get(fileName);
-			String litteralValue = properties.getProperty(key);
+			String fileName = candidate.getFileName();
+			String litteralValue = candidate.getLiteral();
 
-			if (litteralValue != null) {
-				// The property has been found. Read its content through user
-				// provided reader
-				try {
-
-					// read serialized data
-					Property<T> newValue = new Property<T>(reader
-							.readProperty(litteralValue), litteralValue);
-
-					// store the property value
-					ResourcesContainer.addPropertyI(key, newValue);
+			if (currentValue != null
+					&& litteralValue.equals(currentValue
+							.getRepresentation())) {
+				// the representation is unchanged, so is the value
+				return (Property<T>) currentValue;
+			}
+			// The property has been found. Read its content through user
+			// provided reader (unless the snapshot loaded holds its value)
+			try {
 
-					// return it
-					return newValue;
-				} catch (IllegalArgumentException e) {
-					// notifies that the parser found an error
-					fireParseError(new BadPropertyFormatError(fileName, key,
-							litteralValue, e.getMessage()));
-					errorsCount++;
+				// read serialized data
+				T value;
+				SnapshotValue snapshotValue = snapshotValues.get(key);
+				if (snapshotValue != null
+						&& snapshotValue.matches(reader, litteralValue)) {
+					value = (T) snapshotValue.getValue();
+				} else {
+					Property<?> primitiveProperty = readPrimitiveProperty(
+							reader, litteralValue);
+					if (primitiveProperty != null) {
+						// read without boxing, in a primitive slot
+						return (Property<T>) primitiveProperty;
+					}
+					InterningCache cache = null;
+					if (reader instanceof ImmutablePropertyReader) {
+						cache = interningCache;
+					}
+					T internedValue = cache == null ? null : (T) cache.get(
+							reader, litteralValue);
+					if (internedValue != null) {
+						// already read for another key : shared
+						value = internedValue;
+					} else if (reader instanceof ResultPropertyReader) {
+						// no exception : the error message is formatted only
+						// if a listener asks for it
+						ParseResult<T> result = ((ResultPropertyReader<T>) reader)
+								.parseProperty(litteralValue);
+						if (!result.isValid()) {
+							fireParseError(new BadPropertyFormatError(fileName,
+									key, litteralValue, result.getErrorCode(),
+									result.getErrorArguments()));
+							errorsCount++;
+							continue;
+						}
+						value = result.getValue();
+					} else {
+						value = reader.readProperty(litteralValue);
+					}
+					if (cache != null && internedValue == null) {
+						cache.put(reader, litteralValue, value);
+					}
 				}
+				// return the property value (stored by the caller, that
+				// watches the completion of asynchronous values), in a
+				// primitive slot for the primitive types
+				return PrimitiveProperty.create(value, litteralValue);
+			} catch (IllegalArgumentException e) {
+				// notifies that the parser found an error
+				fireParseError(new BadPropertyFormatError(fileName, key,
+						litteralValue, e.getMessage()));
+				errorsCount++;
 			}
 		}
 
 		// error case : no valid property has been found
+		if (errorsCount == 0 && !notifyMissing) {
+			// absence is a normal result for the caller
+			return null;
+		}
 		if (errorsCount == 0) {
 			// the property has not been found
-			fireNotFoundError(key);
+			fireNotFoundError(key, propertyFiles);
 		}
 
 		// error case : all properties was bad formatted, the property has
@@ -306,6 +1333,96 @@ public class BasicResourcesLoader {
 		return null;
 	}
 
+	/**
+	 * Reads a property through a primitive reader (see
+	 * {@link IntPropertyReader} for instance), in a primitive slot
+	 * 
+	 * @param reader
+	 *            : property reader
+	 * @param litteralValue
+	 *            : property representation
+	 * @return - the property read, null if the reader is not a primitive
+	 *         reader
+	 * @throws IllegalArgumentException
+	 *             if the representation can not be parsed
+	 */
+	private static Property<?> readPrimitiveProperty(PropertyReader<?> reader,
+			String litteralValue) throws IllegalArgumentException {
+		int length = litteralValue.length();
+		if (reader instanceof IntPropertyReader) {
+			return PrimitiveProperty.ofInt(((IntPropertyReader) reader)
+					.readIntProperty(litteralValue, 0, length), litteralValue);
+		}
+		if (reader instanceof LongPropertyReader) {
+			return PrimitiveProperty.ofLong(((LongPropertyReader) reader)
+					.readLongProperty(litteralValue, 0, length), litteralValue);
+		}
+		if (reader instanceof FloatPropertyReader) {
+			return PrimitiveProperty.ofFloat(((FloatPropertyReader) reader)
+					.readFloatProperty(litteralValue, 0, length), litteralValue);
+		}
+		if (reader instanceof DoublePropertyReader) {
+			return PrimitiveProperty.ofDouble(((DoublePropertyReader) reader)
+					.readDoubleProperty(litteralValue, 0, length),
+					litteralValue);
+		}
+		if (reader instanceof BooleanPropertyReader) {
+			return PrimitiveProperty.ofBoolean(((BooleanPropertyReader) reader)
+					.readBooleanProperty(litteralValue, 0, length),
+					litteralValue);
+		}
+		return null;
+	}
+
+	/**
+	 * Notifies the container listeners when an asynchronous value stored for a
+	 * key is complete (nothing is fired if the key holds another value by
+	 * then), or the error listeners if it can not be completed
+	 * 
+	 * @param key
+	 *            : key
+	 * @param property
+	 *            : property stored for the key (null if none)
+	 * @param stack
+	 *            : files version the property was read from
+	 */
+	private void notifyCompletion(final String key, Property<?> property,
+			PropertyFileStack stack) {
+		if (property == null
+				|| !(property.getValue() instanceof AsynchronousValue)) {
+			return;
+		}
+		final AsynchronousValue value = (AsynchronousValue) property
+				.getValue();
+		final String litteralValue = property.getRepresentation();
+		String definingFile = null;
+		for (Candidate candidate : stack.getCandidates(key)) {
+			if (candidate.getLiteral().equals(litteralValue)) {
+				definingFile = candidate.getFileName();
+				break;
+			}
+		}
+		final String fileName = definingFile;
+		value.addCompletionListener(new ICompletionListener() {
+			/**
+			 * {@inherit}
+			 */
+			@Override
+			public void notifyCompleted() {
+				container.firePropertyCompleted(key, value);
+			}
+
+			/**
+			 * {@inherit}
+			 */
+			@Override
+			public void notifyFailed(String errorMessage) {
+				fireParseError(new BadPropertyFormatError(fileName, key,
+						litteralValue, errorMessage));
+			}
+		});
+	}
+
 	/**
 	 * Adds an available property file to the loader as most important one. This
 	 * file will later be retrieved using the classpath
@@ -327,7 +1444,7 @@ public class BasicResourcesLoader {
 	 * @return - true if it has been loaded
 	 */
 	public boolean isFileLoaded(String fileName) {
-		return propertyFiles.contains(fileName);
+		return fileStack.containsFile(fileName);
 	}
 
 	/**
@@ -369,6 +1486,68 @@ public class BasicResourcesLoader {
 		return classLoader;
 	}
 
+	/**
+	 * Getter -
+	 * 
+	 * @return the container in which this loader stores the properties read
+	 */
+	public ResourcesContainer getContainer() {
+		return container;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return true if the files added are memory mapped when possible
+	 */
+	public boolean isMemoryMapping() {
+		return memoryMapping;
+	}
+
+	/**
+	 * Setter - When the memory mapping mode is on, the files added later that
+	 * are found on the file system (not in a Jar) are memory mapped : the heap
+	 * only holds an offsets index of the file and the values resolved, so that
+	 * very large files can be used. Off by default.
+	 * 
+	 * @param memoryMapping
+	 *            : should the files added be memory mapped when possible
+	 */
+	public void setMemoryMapping(boolean memoryMapping) {
+		this.memoryMapping = memoryMapping;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the maximum number of values shared between keys, 0 when the
+	 *         interning is disabled
+	 */
+	public int getInterningCacheSize() {
+		InterningCache cache = interningCache;
+		return cache == null ? 0 : cache.getCapacity();
+	}
+
+	/**
+	 * Setter - When the interning cache is enabled, the values read by an
+	 * {@link ImmutablePropertyReader} are kept by reader and literal value :
+	 * the keys defined by the same literal share a single value instance, read
+	 * once. The least recently used values are dropped when the cache is
+	 * full. Disabled by default. Changing the size empties the cache.
+	 * 
+	 * @param size
+	 *            : maximum number of values kept, 0 to disable the interning
+	 * @throws IllegalArgumentException
+	 *             if the size is negative
+	 */
+	public void setInterningCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException(
+					"The interning cache size can not be negative");
+		}
+		interningCache = size == 0 ? null : new InterningCache(size);
+	}
+
 	/**
 	 * Setter -
 	 * 
@@ -381,7 +1560,7 @@ public class BasicResourcesLoader {
 
 	/**
 	 * Exports the file named [fileName] and overwrite its current properties
-	 * definition with the one known in {@link ResourcesContainer} instances for
+	 * definition with the one known in the loader {@link ResourcesContainer} for
 	 * the same keys. This method is especially designed for the programmer to
 	 * provide a user property files. Actually, the user could edit the
 	 * properties through the application - or the application could force some
@@ -412,8 +1591,8 @@ public class BasicResourcesLoader {
 		if (fileName == null) {
 			throw new IllegalArgumentException("The file name can not be null");
 		}
-		Properties fileProperties = knownPropertyFiles.get(fileName);
-		if (fileProperties == null) {
+		PropertyTable fileContent = fileStack.getFileContent(fileName);
+		if (fileContent == null) {
 			throw new IllegalArgumentException(
 					"Unknown file name. Has it been loaded correctly?");
 		}
@@ -431,39 +1610,189 @@ public class BasicResourcesLoader {
 		} catch (URISyntaxException e1) {
 			// cannot happen
 		}
+
+		// update the corresponding properties
+		Properties fileProperties = new Properties();
+		for (int entry = 0; entry < fileContent.size(); entry++) {
+			String key = fileContent.getKey(entry);
+			fileProperties.setProperty(key, fileContent.getLiteral(entry));
+			Property<?> currentPropertyValue = container.getProperty(key);
+			if (currentPropertyValue != null
+					&& !ResourcesContainer
+							.isUnfoundProperty(currentPropertyValue)) {
+				// that property is known, update it in case where the
+				// application changed it
+				fileProperties.setProperty(key, currentPropertyValue
+						.getRepresentation());
+			}
+		}
+		// write the new file (lose any comment of the previous one). A mapped
+		// file may still be read through an older files version : it is
+		// replaced rather than truncated
+		ByteArrayOutputStream exportedContent = new ByteArrayOutputStream();
+		File writtenFile = resourceFile;
+		try {
+			if (fileContent.isMapped()) {
+				writtenFile = File.createTempFile(resourceFile.getName(),
+						null, resourceFile.getParentFile());
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("The file can not be written");
+		}
 		FileOutputStream fileOutputStream = null;
 		try {
-			fileOutputStream = new FileOutputStream(resourceFile);
+			fileOutputStream = new FileOutputStream(writtenFile);
 		} catch (FileNotFoundException e) {
 			throw new IllegalArgumentException(
 					"The file can not be opened : Is it already opened by another application?");
 		} catch (SecurityException e) {
 			throw new IllegalArgumentException("The file can not be written");
 		}
+		try {
+			fileProperties.store(exportedContent, null);
+			exportedContent.writeTo(fileOutputStream);
+			fileOutputStream.close();
+			if (writtenFile != resourceFile
+					&& !writtenFile.renameTo(resourceFile)) {
+				writtenFile.delete();
+				throw new IllegalArgumentException(
+						"The file can not be replaced : Is it already opened by another application?");
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Could not save the property file "
+					+ fileName + ". The following error occured : "
+					+ e.getMessage());
+		}
 
-		// update the corresponding properties
-		Set<Entry<Object, Object>> entrySet = fileProperties.entrySet();
-		for (Entry<Object, Object> entry : entrySet) {
-			Property<?> currentPropertyValue = ResourcesContainer.getInstance()
-					.getProperty((String) entry.getKey());
-			if (currentPropertyValue != null
-					&& !ResourcesContainer
-							.isUnfoundProperty(currentPropertyValue)) {
-				// that property is known, update it in case where the
-				// application changed it
-				fileProperties.setProperty((String) entry.getKey(),
-						currentPropertyValue.getRepresentation());
+		// the file now holds the exported values
+		synchronized (filesLock) {
+			fileStack = fileStack.withFileContent(fileName, PropertyFileParser
+					.parse(ByteBuffer.wrap(exportedContent.toByteArray())));
+		}
+
+	}
+
+	/**
+	 * Compiles the property files of this loader in a binary snapshot. The
+	 * snapshot holds the files content, their merged index and the values
+	 * currently known that were read by an {@link IDirectValueConverter} (of
+	 * standard types : String, numbers, Boolean, Character and Color). A later
+	 * run can load it with {@link #loadSnapshot(File)} instead of adding the
+	 * files : nothing is parsed and those values are not read again.<br>
+	 * The lazy files not read yet are read by this call.
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file (replaced if it exists)
+	 * @throws IllegalArgumentException
+	 *             if the snapshot file is null
+	 * @throws RuntimeException
+	 *             : if an IO exception occurs
+	 */
+	public void compileSnapshot(File snapshotFile) {
+		if (snapshotFile == null) {
+			throw new IllegalArgumentException(
+					"The snapshot file can not be null");
+		}
+
+		// read the lazy files, so that the snapshot indexes all files
+		PropertyFileStack stack = fileStack;
+		for (String fileName : stack.getFileNames()) {
+			stack.getFileContent(fileName);
+		}
+		publishReadLazyFiles();
+		stack = fileStack;
+
+		// values that can be used instead of reading the representation again
+		List<SnapshotValue> values = new ArrayList<SnapshotValue>();
+		for (Map.Entry<String, PropertyReader<?>> entry : propertyReaders
+				.entrySet()) {
+			PropertyReader<?> reader = entry.getValue();
+			Property<?> property = container.getProperty(entry.getKey());
+			if (reader instanceof IDirectValueConverter<?>
+					&& property != null
+					&& !ResourcesContainer.isUnfoundProperty(property)
+					&& PropertySnapshot.isSupportedValue(property.getValue())) {
+				values.add(new SnapshotValue(entry.getKey(), reader
+						.getClass().getName(), property.getRepresentation(),
+						property.getValue()));
 			}
 		}
 
-		// write the new file (lose any comment of the previous one)
 		try {
-			fileProperties.store(fileOutputStream, null);
+			PropertySnapshot.write(snapshotFile, stack, values, classLoader);
 		} catch (IOException e) {
-			throw new RuntimeException("Could not save the property file "
-					+ fileName + ". The following error occured : "
+			throw new RuntimeException("Could not save the snapshot "
+					+ snapshotFile + ". The following error occured : "
 					+ e.getMessage());
 		}
+	}
+
+	/**
+	 * Loads a snapshot compiled by {@link #compileSnapshot(File)}, in place of
+	 * adding its property files. The snapshot file is memory mapped. It is
+	 * only loaded if it is still valid : when one of its source files changed
+	 * (last modification date or size), it is stale and this method returns
+	 * false. The files should then be added again, and the snapshot compiled
+	 * again.
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file
+	 * @return - true if the snapshot was loaded, false if it does not exist,
+	 *         is not valid or is stale
+	 * @throws IllegalArgumentException
+	 *             if the snapshot file is null
+	 * @throws IllegalStateException
+	 *             if property files were already added to this loader
+	 */
+	public boolean loadSnapshot(File snapshotFile) {
+		if (snapshotFile == null) {
+			throw new IllegalArgumentException(
+					"The snapshot file can not be null");
+		}
+		synchronized (filesLock) {
+			if (fileStack.size() != 0) {
+				throw new IllegalStateException(getClass().getName()
+						+ " : a snapshot can only be loaded before any file");
+			}
+			PropertySnapshot snapshot;
+			try {
+				snapshot = PropertySnapshot.read(snapshotFile, classLoader);
+			} catch (IOException e) {
+				return false;
+			}
+			if (snapshot == null) {
+				return false;
+			}
+			snapshotValues = snapshot.getValues();
+			fileStack = snapshot.getFileStack();
+			return true;
+		}
+	}
+
+	/**
+	 * Container listener that marks the handles as stale when their property
+	 * changes (or when the container is cleared)
+	 */
+	private class HandlesInvalidator implements PropertyChangeListener {
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public void propertyChange(PropertyChangeEvent event) {
+			String key = event.getPropertyName();
+			if (key == null) {
+				// the container was reset
+				for (PropertyHandle<?> handle : handles.values()) {
+					handle.invalidate();
+				}
+				return;
+			}
+			PropertyHandle<?> handle = handles.get(key);
+			if (handle != null) {
+				handle.invalidate();
+			}
+		}
 
 	}
 
@@ -475,9 +1804,8 @@ public class BasicResourcesLoader {
 	 * 
 	 */
 	private void fireFileNotFound(String fileName) {
-		// avoid concurrent access by duplicating the list
-		for (ILoaderErrorListener listener : new ArrayList<ILoaderErrorListener>(
-				_errorListeners)) {
+		// the listeners list is copied on write : its iterator is a snapshot
+		for (ILoaderErrorListener listener : _errorListeners) {
 			listener.notifyMissingFile(fileName);
 		}
 	}
@@ -490,9 +1818,8 @@ public class BasicResourcesLoader {
 	 * 
 	 */
 	private void fireCouldNotRead(String fileName) {
-		// avoid concurrent access by duplicating the list
-		for (ILoaderErrorListener listener : new ArrayList<ILoaderErrorListener>(
-				_errorListeners)) {
+		// the listeners list is copied on write : its iterator is a snapshot
+		for (ILoaderErrorListener listener : _errorListeners) {
 			listener.notifyCouldNotReadFile(fileName);
 		}
 	}
@@ -504,9 +1831,8 @@ public class BasicResourcesLoader {
 	 *            : key not loaded
 	 */
 	private void fireNotLoaded(String key) {
-		// avoid concurrent access by duplicating the list
-		for (ILoaderErrorListener listener : new ArrayList<ILoaderErrorListener>(
-				_errorListeners)) {
+		// the listeners list is copied on write : its iterator is a snapshot
+		for (ILoaderErrorListener listener : _errorListeners) {
 			listener.notifyCouldNotReadProperty(key);
 		}
 	}
@@ -516,13 +1842,15 @@ public class BasicResourcesLoader {
 	 * 
 	 * @param propertyKey
 	 *            : key not found
+	 * @param propertyFiles
+	 *            : files searched
 	 */
-	private void fireNotFoundError(String propertyKey) {
-		// avoid concurrent access by duplicating the list
-		for (ILoaderErrorListener listener : new ArrayList<ILoaderErrorListener>(
-				_errorListeners)) {
-			listener.notifyPropertyNotFound(propertyKey, new ArrayList<String>(
-					propertyFiles));
+	private void fireNotFoundError(String propertyKey,
+			List<String> propertyFiles) {
+		// the listeners list is copied on write : its iterator is a snapshot
+		for (ILoaderErrorListener listener : _errorListeners) {
+			// the files list of a stack version is immutable : shared
+			listener.notifyPropertyNotFound(propertyKey, propertyFiles);
 		}
 	}
 
@@ -533,9 +1861,8 @@ public class BasicResourcesLoader {
 	 *            : error that happened
 	 */
 	private void fireParseError(BadPropertyFormatError error) {
-		// avoid concurrent access by duplicating the list
-		for (ILoaderErrorListener listener : new ArrayList<ILoaderErrorListener>(
-				_errorListeners)) {
+		// the listeners list is copied on write : its iterator is a snapshot
+		for (ILoaderErrorListener listener : _errorListeners) {
 			listener.notifyPropertyParseError(error);
 		}
 	}
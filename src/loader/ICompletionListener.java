@@ -0,0 +1,43 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * Listener of the completion of an {@link AsynchronousValue} : it is notified
+ * once, either when the value is complete or when it can not be completed.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public interface ICompletionListener {
+
+	/**
+	 * Invoked when the value is complete
+	 */
+	void notifyCompleted();
+
+	/**
+	 * Invoked when the value can not be completed
+	 * 
+	 * @param errorMessage
+	 *            : error message
+	 */
+	void notifyFailed(String errorMessage);
+
+}
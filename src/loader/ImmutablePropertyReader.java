@@ -0,0 +1,35 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * Marker of the {@link PropertyReader} whose values are immutable, and always
+ * equal for a same representation. The {@link BasicResourcesLoader} may then
+ * share a single value between all the keys defined by the same literal (see
+ * {@link BasicResourcesLoader#setInterningCacheSize(int)}).
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ * 
+ * @param T
+ *            : type of property value for the property instantiated
+ */
+public interface ImmutablePropertyReader<T> extends PropertyReader<T> {
+	// marker only
+}
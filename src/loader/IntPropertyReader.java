@@ -0,0 +1,66 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * {@link SequencePropertyReader} of integer properties that can also read them as
+ * primitive int values. The {@link BasicResourcesLoader} stores the
+ * values read by such a reader in primitive slots (see
+ * {@link container.PrimitiveProperty}), from which
+ * {@link BasicResourcesLoader#getIntProperty(String, IntPropertyReader, int)}
+ * reads them without any allocation.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public interface IntPropertyReader extends
+		SequencePropertyReader<Integer> {
+
+	/**
+	 * Reads and returns property value from its string representation in the
+	 * property file, as a primitive value
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation in the property text file
+	 * @return - the property value
+	 * @throws IllegalArgumentException
+	 *             : if the representation can not be parsed, such exceptions
+	 *             should be thrown (the exception message will be propagated)
+	 */
+	int readIntProperty(String propertyRepresentation)
+			throws IllegalArgumentException;
+
+	/**
+	 * Reads and returns property value from its representation in a region of
+	 * a character sequence, as a primitive value
+	 * 
+	 * @param sequence
+	 *            : character sequence holding the property representation
+	 * @param start
+	 *            : representation start in the sequence
+	 * @param end
+	 *            : representation end in the sequence (excluded)
+	 * @return - the property value
+	 * @throws IllegalArgumentException
+	 *             : if the representation can not be parsed
+	 */
+	int readIntProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException;
+
+}
@@ -0,0 +1,146 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of the values read by {@link ImmutablePropertyReader}s, by
+ * reader and literal value. When it is full, the least recently used value is
+ * dropped. It can be used by many threads.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class InterningCache {
+
+	/** Maximum number of values **/
+	private final int capacity;
+
+	/** Values by reader and literal, from the least recently used **/
+	private final Map<Key, Object> values;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            : see attribute
+	 */
+	InterningCache(final int capacity) {
+		this.capacity = capacity;
+		values = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+
+			/** Serial version UID **/
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inherit}
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the value read for a literal
+	 * 
+	 * @param reader
+	 *            : reader
+	 * @param literal
+	 *            : literal value
+	 * @return - the value the reader read for that literal, null if unknown
+	 */
+	synchronized Object get(PropertyReader<?> reader, String literal) {
+		return values.get(new Key(reader, literal));
+	}
+
+	/**
+	 * Stores the value read for a literal
+	 * 
+	 * @param reader
+	 *            : reader
+	 * @param literal
+	 *            : literal value
+	 * @param value
+	 *            : value the reader read for that literal
+	 */
+	synchronized void put(PropertyReader<?> reader, String literal,
+			Object value) {
+		values.put(new Key(reader, literal), value);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the maximum number of values
+	 */
+	int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Cache key : a reader instance and a literal value
+	 */
+	private static final class Key {
+
+		/** Reader **/
+		private final PropertyReader<?> reader;
+
+		/** Literal value **/
+		private final String literal;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param reader
+		 *            : see attribute
+		 * @param literal
+		 *            : see attribute
+		 */
+		Key(PropertyReader<?> reader, String literal) {
+			this.reader = reader;
+			this.literal = literal;
+		}
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return reader == other.reader && literal.equals(other.literal);
+		}
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(reader) * 31 + literal.hashCode();
+		}
+
+	}
+
+}
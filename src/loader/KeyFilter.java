@@ -0,0 +1,139 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * Bloom filter of the keys of a {@link PropertyIndex} : it tells for sure that
+ * a key is defined by no indexed file, without reading the file tables. The
+ * filter is built from the key hashes (about 1% of false positives) and is
+ * split in blocks of a cache line : the bits of a key are all in its block,
+ * so that a test reads a single cache line. It holds about 10 to 20 bits by
+ * key (a few mega bytes for millions of keys) and is immutable once built.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class KeyFilter {
+
+	/** Minimum number of bits by key **/
+	private static final int BITS_PER_KEY = 10;
+
+	/** Number of bits set by key **/
+	private static final int PROBES = 7;
+
+	/** Number of words of a block (a block is a 64 bytes cache line) **/
+	private static final int BLOCK_WORDS = 8;
+
+	/** Number of bits of a block **/
+	private static final int BLOCK_BITS = BLOCK_WORDS * 64;
+
+	/** Maximum number of blocks **/
+	private static final int MAXIMUM_BLOCKS = 1 << 24;
+
+	/** Filter bits, by block **/
+	private final long[] words;
+
+	/** Mask selecting a block (blocks count - 1) **/
+	private final int blockMask;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param keysCount
+	 *            : number of keys the filter will hold
+	 */
+	KeyFilter(int keysCount) {
+		long bitsCount = (long) keysCount * BITS_PER_KEY;
+		int blocksCount = 1;
+		while ((long) blocksCount * BLOCK_BITS < bitsCount
+				&& blocksCount < MAXIMUM_BLOCKS) {
+			blocksCount <<= 1;
+		}
+		words = new long[blocksCount * BLOCK_WORDS];
+		blockMask = blocksCount - 1;
+	}
+
+	/**
+	 * Adds a key to the filter
+	 * 
+	 * @param hash
+	 *            : key hash code
+	 */
+	void add(int hash) {
+		int block = (mix(hash) & blockMask) * BLOCK_WORDS;
+		long probes = mix64(hash);
+		for (int i = 0; i < PROBES; i++, probes >>>= 9) {
+			int bit = (int) probes & (BLOCK_BITS - 1);
+			words[block + (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * May the filter hold a key
+	 * 
+	 * @param hash
+	 *            : key hash code
+	 * @return - false if the key was never added, true if it may have been
+	 */
+	boolean mayContain(int hash) {
+		int block = (mix(hash) & blockMask) * BLOCK_WORDS;
+		long probes = mix64(hash);
+		for (int i = 0; i < PROBES; i++, probes >>>= 9) {
+			int bit = (int) probes & (BLOCK_BITS - 1);
+			if ((words[block + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Mixes the bits of a hash, to select the block (murmur 3 finalizer)
+	 * 
+	 * @param hash
+	 *            : key hash code
+	 * @return - the mixed hash
+	 */
+	private static int mix(int hash) {
+		int mixed = hash;
+		mixed ^= mixed >>> 16;
+		mixed *= 0x85EBCA6B;
+		mixed ^= mixed >>> 13;
+		mixed *= 0xC2B2AE35;
+		mixed ^= mixed >>> 16;
+		return mixed;
+	}
+
+	/**
+	 * Mixes the bits of a hash in a long, to select the bits in the block
+	 * (independently from the block selection)
+	 * 
+	 * @param hash
+	 *            : key hash code
+	 * @return - the mixed hash (9 bits by probe)
+	 */
+	private static long mix64(int hash) {
+		long mixed = hash * 0x9E3779B97F4A7C15L;
+		mixed ^= mixed >>> 33;
+		mixed *= 0xFF51AFD7ED558CCDL;
+		mixed ^= mixed >>> 33;
+		return mixed;
+	}
+
+}
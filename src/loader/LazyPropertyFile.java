@@ -0,0 +1,161 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import loader.file.PropertyTable;
+
+/**
+ * Property file registered without being read (see
+ * {@link BasicResourcesLoader#addLazyPropertyFile(String, int)}). The file is
+ * not read by the thread that registers it : a background thread reads it
+ * ahead of the lookups, unless a lookup reaches it first. The file is read
+ * once, and its reader is then notified so that the known keys it defines are
+ * resolved again.<br>
+ * An instance is shared by the files stack versions and can be used by many
+ * threads.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class LazyPropertyFile {
+
+	/** Executor reading the files ahead of the lookups, in a daemon thread **/
+	private static final ExecutorService READING_EXECUTOR = Executors
+			.newSingleThreadExecutor(new ThreadFactory() {
+				/**
+				 * {@inherit}
+				 */
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable,
+							"Property files indexing");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+
+	/** File URL **/
+	private final URL resourceURL;
+
+	/** Should the file be memory mapped when possible **/
+	private final boolean memoryMapping;
+
+	/** File content, null while the file has not been read **/
+	private volatile PropertyTable content;
+
+	/** Could the file not be read **/
+	private volatile boolean readFailed;
+
+	/**
+	 * Listener called on the background thread once it read the file
+	 */
+	private final Runnable readListener;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param resourceURL
+	 *            : see attribute
+	 * @param memoryMapping
+	 *            : see attribute
+	 * @param readListener
+	 *            : see attribute
+	 */
+	LazyPropertyFile(URL resourceURL, boolean memoryMapping,
+			Runnable readListener) {
+		this.resourceURL = resourceURL;
+		this.memoryMapping = memoryMapping;
+		this.readListener = readListener;
+	}
+
+	/**
+	 * Schedules the file reading on the background thread (a lookup that
+	 * reaches the file meanwhile waits for it rather than reading it again)
+	 */
+	void scheduleReading() {
+		READING_EXECUTOR.execute(new Runnable() {
+			/**
+			 * {@inherit}
+			 */
+			@Override
+			public void run() {
+				if (content != null) {
+					// the file was read meanwhile
+					return;
+				}
+				getContent();
+				readListener.run();
+			}
+		});
+	}
+
+	/**
+	 * Returns the file content, reading the file on first call
+	 * 
+	 * @return - the file content (empty if the file could not be read)
+	 */
+	PropertyTable getContent() {
+		PropertyTable fileContent = content;
+		if (fileContent == null) {
+			synchronized (this) {
+				fileContent = content;
+				if (fileContent == null) {
+					try {
+						fileContent = BasicResourcesLoader.readFile(
+								resourceURL, memoryMapping);
+					} catch (IllegalArgumentException e) {
+						fileContent = PropertyTable.EMPTY;
+						readFailed = true;
+					} catch (IOException e) {
+						fileContent = PropertyTable.EMPTY;
+						readFailed = true;
+					}
+					content = fileContent;
+				}
+			}
+		}
+		return fileContent;
+	}
+
+	/**
+	 * Has the file been read
+	 * 
+	 * @return - true if the file has been read (or could not be read)
+	 */
+	boolean isRead() {
+		return content != null;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return true if the file has been read but could not be
+	 */
+	boolean isReadFailed() {
+		return readFailed;
+	}
+
+}
@@ -0,0 +1,153 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import loader.messages.DMLoader;
+
+/**
+ * Result of a property parsing by a {@link ResultPropertyReader} : either the
+ * value read or the error found. An error is described by a message key and
+ * its parameters : the message is only formatted (see
+ * {@link DMLoader#getMessage(String, Object...)}) when it is asked for. Unlike
+ * an exception, a result captures no stack trace.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ * 
+ * @param T
+ *            : type of the value read
+ */
+public final class ParseResult<T> {
+
+	/** Value read (null for an error) **/
+	private final T value;
+
+	/** Error message key (null when the value was read) **/
+	private final String errorCode;
+
+	/** Error message parameters **/
+	private final Object[] errorArguments;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param value
+	 *            : see attribute
+	 * @param errorCode
+	 *            : see attribute
+	 * @param errorArguments
+	 *            : see attribute
+	 */
+	private ParseResult(T value, String errorCode, Object[] errorArguments) {
+		this.value = value;
+		this.errorCode = errorCode;
+		this.errorArguments = errorArguments;
+	}
+
+	/**
+	 * Builds the result of a valid representation
+	 * 
+	 * @param <T>
+	 *            : type of the value read
+	 * @param value
+	 *            : value read (not null)
+	 * @return - the result
+	 */
+	public static <T> ParseResult<T> success(T value) {
+		return new ParseResult<T>(value, null, null);
+	}
+
+	/**
+	 * Builds the result of an invalid representation
+	 * 
+	 * @param <T>
+	 *            : type of the value awaited
+	 * @param errorCode
+	 *            : key of the error message
+	 * @param errorArguments
+	 *            : parameters of the error message (not null)
+	 * @return - the result
+	 * @throws IllegalArgumentException
+	 *             if the error code is null
+	 */
+	public static <T> ParseResult<T> failure(String errorCode,
+			Object... errorArguments) {
+		if (errorCode == null) {
+			throw new IllegalArgumentException("The error code can not be null");
+		}
+		return new ParseResult<T>(null, errorCode, errorArguments);
+	}
+
+	/**
+	 * Was the representation valid
+	 * 
+	 * @return - true if the value was read, false if an error was found
+	 */
+	public boolean isValid() {
+		return errorCode == null;
+	}
+
+	/**
+	 * Returns the value read
+	 * 
+	 * @return - the value read
+	 * @throws IllegalArgumentException
+	 *             if the representation was invalid (the exception message is
+	 *             the formatted error message), as
+	 *             {@link PropertyReader#readProperty(String)}
+	 */
+	public T getValue() throws IllegalArgumentException {
+		if (errorCode != null) {
+			throw new IllegalArgumentException(getErrorMessage());
+		}
+		return value;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the error message key (null if the value was read)
+	 */
+	public String getErrorCode() {
+		return errorCode;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the error message parameters (null if the value was read)
+	 */
+	public Object[] getErrorArguments() {
+		return errorArguments;
+	}
+
+	/**
+	 * Formats the error message
+	 * 
+	 * @return - the internationalized error message (null if the value was
+	 *         read)
+	 */
+	public String getErrorMessage() {
+		if (errorCode == null) {
+			return null;
+		}
+		return DMLoader.getMessage(errorCode, errorArguments);
+	}
+
+}
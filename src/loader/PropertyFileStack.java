@@ -0,0 +1,680 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import loader.file.PropertyTable;
+
+/**
+ * Immutable version of the property files known by a
+ * {@link BasicResourcesLoader}. Adding a file builds a new version, so that a
+ * reader that got a version can walk it without any lock while another thread
+ * registers new files.<br>
+ * Each version holds merged indexes of the files (see {@link PropertyIndex}) :
+ * for each key, the literal values defined by the files, from the most
+ * important file to the less important one. Resolving a key therefore costs a
+ * few hash lookups, whatever the number of files.<br>
+ * The index is split in segments, immutable and shared between versions :
+ * adding, reloading or reading a file only indexes that file in a new
+ * segment. The segments are merged once they reach the same size (so that
+ * each entry is indexed again a logarithmic number of times), and a segment
+ * mostly made of replaced file contents is rebuilt. Their key filters answer
+ * the lookups of undefined keys without reading the file tables.<br>
+ * The files registered lazily (see {@link LazyPropertyFile}) are not in the
+ * index until they are read. While some are pending, the lookups walk the
+ * files by descending priority instead.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class PropertyFileStack {
+
+	/** No index segment **/
+	private static final PropertyIndex[] NO_SEGMENT = new PropertyIndex[0];
+
+	/** Empty stack **/
+	static final PropertyFileStack EMPTY = new PropertyFileStack(
+			Collections.<String> emptyList(), Collections
+					.<String, PropertyTable> emptyMap(), Collections
+					.<String, LazyPropertyFile> emptyMap(), NO_SEGMENT);
+
+	/** No candidate for a key **/
+	private static final Candidate[] NO_CANDIDATE = new Candidate[0];
+
+	/**
+	 * Property file names, by ascending priority (unmodifiable)
+	 */
+	private final List<String> fileNames;
+
+	/** Property file contents, sorted by file name (unmodifiable) **/
+	private final Map<String, PropertyTable> fileContents;
+
+	/**
+	 * Files registered lazily that were not read when the version was built,
+	 * sorted by file name (unmodifiable)
+	 */
+	private final Map<String, LazyPropertyFile> lazyFiles;
+
+	/** Index segments of the files read (unmodifiable) **/
+	private final PropertyIndex[] segments;
+
+	/**
+	 * Does each segment index file contents that were replaced since then
+	 * (their candidates are then filtered out)
+	 */
+	private final boolean[] staleSegments;
+
+	/**
+	 * Position of each file in the file names, sorted by file name (allows
+	 * ordering the candidates of several segments)
+	 */
+	private final Map<String, Integer> filePositions;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param fileNames
+	 *            : see attribute
+	 * @param fileContents
+	 *            : see attribute
+	 * @param lazyFiles
+	 *            : see attribute
+	 * @param segments
+	 *            : see attribute
+	 */
+	private PropertyFileStack(List<String> fileNames,
+			Map<String, PropertyTable> fileContents,
+			Map<String, LazyPropertyFile> lazyFiles, PropertyIndex[] segments) {
+		this.fileNames = fileNames;
+		this.fileContents = fileContents;
+		this.lazyFiles = lazyFiles;
+		this.segments = segments;
+		staleSegments = new boolean[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			staleSegments[i] = getLiveSize(segments[i], fileContents) != segments[i]
+					.size();
+		}
+		filePositions = getPositions(fileNames);
+	}
+
+	/**
+	 * Builds a stack version from files read with their merged index (see
+	 * {@link PropertySnapshot})
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority
+	 * @param fileContents
+	 *            : file contents, sorted by file name
+	 * @param mergedIndex
+	 *            : merged index of those files
+	 * @return - the stack version
+	 */
+	static PropertyFileStack of(List<String> fileNames,
+			Map<String, PropertyTable> fileContents, PropertyIndex mergedIndex) {
+		return new PropertyFileStack(Collections
+				.unmodifiableList(new ArrayList<String>(fileNames)), Collections
+				.unmodifiableMap(new HashMap<String, PropertyTable>(
+						fileContents)), Collections
+				.<String, LazyPropertyFile> emptyMap(),
+				new PropertyIndex[] { mergedIndex });
+	}
+
+	/**
+	 * Builds a new version of the stack that contains the file as parameter
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @param fileContent
+	 *            : properties read in the file
+	 * @param index
+	 *            : index of the file in the new version, -1 to add it as most
+	 *            important one
+	 * @return - the new stack version
+	 */
+	PropertyFileStack withFile(String fileName, PropertyTable fileContent,
+			int index) {
+		return withFiles(Collections.singletonList(fileName), Collections
+				.singletonList(fileContent), index);
+	}
+
+	/**
+	 * Builds a new version of the stack that contains the files as parameter
+	 * (the merged index is built once for all of them)
+	 * 
+	 * @param addedFileNames
+	 *            : file names, by ascending priority
+	 * @param addedFileContents
+	 *            : properties read in each file
+	 * @param index
+	 *            : index of the first file in the new version, -1 to add them
+	 *            as most important ones
+	 * @return - the new stack version
+	 */
+	PropertyFileStack withFiles(List<String> addedFileNames,
+			List<PropertyTable> addedFileContents, int index) {
+		List<String> newFileNames = new ArrayList<String>(fileNames);
+		if (index == -1) {
+			newFileNames.addAll(addedFileNames);
+		} else {
+			newFileNames.addAll(index, addedFileNames);
+		}
+		Map<String, PropertyTable> newFileContents = new HashMap<String, PropertyTable>(
+				fileContents);
+		for (int i = 0; i < addedFileNames.size(); i++) {
+			newFileContents.put(addedFileNames.get(i), addedFileContents
+					.get(i));
+		}
+		return new PropertyFileStack(Collections
+				.unmodifiableList(newFileNames), Collections
+				.unmodifiableMap(newFileContents), lazyFiles, addSegment(
+				newFileNames, newFileContents, addedFileNames));
+	}
+
+	/**
+	 * Builds a new version of the stack that contains the lazy file as
+	 * parameter (the merged index is unchanged)
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @param lazyFile
+	 *            : file not read yet
+	 * @param index
+	 *            : index of the file in the new version, -1 to add it as most
+	 *            important one
+	 * @return - the new stack version
+	 */
+	PropertyFileStack withLazyFile(String fileName, LazyPropertyFile lazyFile,
+			int index) {
+		List<String> newFileNames = new ArrayList<String>(fileNames);
+		if (index == -1) {
+			newFileNames.add(fileName);
+		} else {
+			newFileNames.add(index, fileName);
+		}
+		Map<String, LazyPropertyFile> newLazyFiles = new HashMap<String, LazyPropertyFile>(
+				lazyFiles);
+		newLazyFiles.put(fileName, lazyFile);
+		return new PropertyFileStack(Collections
+				.unmodifiableList(newFileNames), fileContents, Collections
+				.unmodifiableMap(newLazyFiles), segments);
+	}
+
+	/**
+	 * Builds a new version of the stack where the lazy files read since this
+	 * version was built are in the merged index
+	 * 
+	 * @return - the new stack version (this one if no lazy file was read)
+	 */
+	PropertyFileStack withReadLazyFiles() {
+		Map<String, PropertyTable> newFileContents = new HashMap<String, PropertyTable>(
+				fileContents);
+		Map<String, LazyPropertyFile> newLazyFiles = new HashMap<String, LazyPropertyFile>();
+		List<String> readFileNames = new ArrayList<String>();
+		for (Map.Entry<String, LazyPropertyFile> lazyFile : lazyFiles
+				.entrySet()) {
+			if (lazyFile.getValue().isRead()) {
+				newFileContents.put(lazyFile.getKey(), lazyFile.getValue()
+						.getContent());
+				readFileNames.add(lazyFile.getKey());
+			} else {
+				newLazyFiles.put(lazyFile.getKey(), lazyFile.getValue());
+			}
+		}
+		if (newLazyFiles.size() == lazyFiles.size()) {
+			return this;
+		}
+		return new PropertyFileStack(fileNames, Collections
+				.unmodifiableMap(newFileContents), Collections
+				.unmodifiableMap(newLazyFiles), addSegment(fileNames,
+				newFileContents, readFileNames));
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the files registered lazily that were not read when this
+	 *         version was built, sorted by file name
+	 */
+	Map<String, LazyPropertyFile> getLazyFiles() {
+		return lazyFiles;
+	}
+
+	/**
+	 * Builds a new version of the stack where the content of a known file is
+	 * replaced by the properties as parameter
+	 * 
+	 * @param fileName
+	 *            : file name (must be in this stack)
+	 * @param fileContent
+	 *            : new file properties
+	 * @return - the new stack version
+	 */
+	PropertyFileStack withFileContent(String fileName,
+			PropertyTable fileContent) {
+		Map<String, PropertyTable> newFileContents = new HashMap<String, PropertyTable>(
+				fileContents);
+		newFileContents.put(fileName, fileContent);
+		Map<String, LazyPropertyFile> newLazyFiles = lazyFiles;
+		if (lazyFiles.containsKey(fileName)) {
+			newLazyFiles = new HashMap<String, LazyPropertyFile>(lazyFiles);
+			newLazyFiles.remove(fileName);
+			newLazyFiles = Collections.unmodifiableMap(newLazyFiles);
+		}
+		return new PropertyFileStack(fileNames, Collections
+				.unmodifiableMap(newFileContents), newLazyFiles, addSegment(
+				fileNames, newFileContents, Collections
+						.singletonList(fileName)));
+	}
+
+	/**
+	 * Returns the segments of a new version, where the files as parameter are
+	 * indexed. Only those files are indexed, with the segments they are
+	 * merged with : the last segments while they are not larger, and the
+	 * segments made mostly of replaced file contents.
+	 * 
+	 * @param newFileNames
+	 *            : file names of the new version, by ascending priority
+	 * @param newFileContents
+	 *            : contents of the files read in the new version, sorted by
+	 *            file name
+	 * @param indexedFileNames
+	 *            : names of the files to index (added, reloaded or read)
+	 * @return - the segments of the new version
+	 */
+	private PropertyIndex[] addSegment(List<String> newFileNames,
+			Map<String, PropertyTable> newFileContents,
+			List<String> indexedFileNames) {
+		Set<String> mergedFileNames = new HashSet<String>(indexedFileNames);
+		int mergedSize = 0;
+		for (String fileName : indexedFileNames) {
+			mergedSize += newFileContents.get(fileName).size();
+		}
+		List<PropertyIndex> newSegments = new ArrayList<PropertyIndex>();
+		for (PropertyIndex segment : segments) {
+			int liveSize = getLiveSize(segment, newFileContents);
+			if (liveSize * 2 < segment.size()) {
+				// mostly replaced : rebuilt with its files still alive
+				mergedSize += addLiveFiles(segment, newFileContents,
+						mergedFileNames);
+			} else {
+				newSegments.add(segment);
+			}
+		}
+		while (!newSegments.isEmpty()
+				&& newSegments.get(newSegments.size() - 1).size() <= mergedSize) {
+			mergedSize += addLiveFiles(newSegments.remove(newSegments.size() - 1),
+					newFileContents, mergedFileNames);
+		}
+		if (!mergedFileNames.isEmpty()) {
+			newSegments.add(buildIndex(newFileNames, newFileContents,
+					mergedFileNames));
+		}
+		return newSegments.toArray(NO_SEGMENT);
+	}
+
+	/**
+	 * Returns the number of entries of a segment whose file content is still
+	 * the one indexed
+	 * 
+	 * @param segment
+	 *            : index segment
+	 * @param fileContents
+	 *            : current file contents, sorted by file name
+	 * @return - the number of live entries
+	 */
+	private static int getLiveSize(PropertyIndex segment,
+			Map<String, PropertyTable> fileContents) {
+		String[] segmentFileNames = segment.getFileNames();
+		PropertyTable[] segmentTables = segment.getTables();
+		int liveSize = 0;
+		for (int file = 0; file < segmentTables.length; file++) {
+			if (fileContents.get(segmentFileNames[file]) == segmentTables[file]) {
+				liveSize += segmentTables[file].size();
+			}
+		}
+		return liveSize;
+	}
+
+	/**
+	 * Adds the files of a segment whose content is still the one indexed to a
+	 * list of files to index
+	 * 
+	 * @param segment
+	 *            : index segment
+	 * @param fileContents
+	 *            : current file contents, sorted by file name
+	 * @param indexedFileNames
+	 *            : names of the files to index
+	 * @return - the number of entries of the files added
+	 */
+	private static int addLiveFiles(PropertyIndex segment,
+			Map<String, PropertyTable> fileContents,
+			Set<String> indexedFileNames) {
+		String[] segmentFileNames = segment.getFileNames();
+		PropertyTable[] segmentTables = segment.getTables();
+		int addedSize = 0;
+		for (int file = 0; file < segmentTables.length; file++) {
+			if (fileContents.get(segmentFileNames[file]) == segmentTables[file]
+					&& indexedFileNames.add(segmentFileNames[file])) {
+				addedSize += segmentTables[file].size();
+			}
+		}
+		return addedSize;
+	}
+
+	/**
+	 * Builds the index of files
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority
+	 * @param fileContents
+	 *            : contents of the files read, sorted by file name
+	 * @param indexedFileNames
+	 *            : names of the files to index (all the files read if null)
+	 * @return - the index built, files by descending priority
+	 */
+	private static PropertyIndex buildIndex(List<String> fileNames,
+			Map<String, PropertyTable> fileContents,
+			Set<String> indexedFileNames) {
+		List<String> names = new ArrayList<String>();
+		List<PropertyTable> tables = new ArrayList<PropertyTable>();
+		for (int file = fileNames.size() - 1; file >= 0; file--) {
+			String fileName = fileNames.get(file);
+			PropertyTable fileContent = fileContents.get(fileName);
+			if (fileContent != null
+					&& (indexedFileNames == null || indexedFileNames
+							.contains(fileName))) {
+				names.add(fileName);
+				tables.add(fileContent);
+			}
+		}
+		return PropertyIndex.build(names.toArray(new String[names.size()]),
+				tables.toArray(new PropertyTable[tables.size()]));
+	}
+
+	/**
+	 * Returns the position of each file
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority
+	 * @return - the position of each file, sorted by file name
+	 */
+	private static Map<String, Integer> getPositions(List<String> fileNames) {
+		Map<String, Integer> positions = new HashMap<String, Integer>();
+		for (int file = 0; file < fileNames.size(); file++) {
+			positions.put(fileNames.get(file), file);
+		}
+		return positions;
+	}
+
+	/**
+	 * Returns the merged index of all the files read when this version was
+	 * built, in a single segment (built if the index is split)
+	 * 
+	 * @return the merged index
+	 */
+	PropertyIndex getMergedIndex() {
+		if (segments.length == 1 && !staleSegments[0]
+				&& segments[0].getTables().length == fileContents.size()) {
+			return segments[0];
+		}
+		return buildIndex(fileNames, fileContents, null);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the file names, by ascending priority
+	 */
+	List<String> getFileNames() {
+		return fileNames;
+	}
+
+	/**
+	 * Returns the content of a file
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @return - the file content or null if the file is not in this stack
+	 *         (a lazy file is read by this call)
+	 */
+	PropertyTable getFileContent(String fileName) {
+		LazyPropertyFile lazyFile = lazyFiles.get(fileName);
+		if (lazyFile != null) {
+			return lazyFile.getContent();
+		}
+		return fileContents.get(fileName);
+	}
+
+	/**
+	 * Is the file as parameter a lazy file that was not read yet
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @return - true if it is a lazy file not read
+	 */
+	boolean isLazyFilePending(String fileName) {
+		LazyPropertyFile lazyFile = lazyFiles.get(fileName);
+		return lazyFile != null && !lazyFile.isRead();
+	}
+
+	/**
+	 * Returns the candidates for a key
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - the literal values defined for that key, from the most
+	 *         important file to the less important one (empty if no file
+	 *         defines it). The lazy files that may define the key are read.
+	 */
+	Candidate[] getCandidates(String key) {
+		if (!lazyFiles.isEmpty()) {
+			return walkCandidates(key);
+		}
+		if (segments.length == 1 && !staleSegments[0]) {
+			Candidate[] candidates = segments[0].getCandidates(key);
+			if (candidates == null) {
+				return NO_CANDIDATE;
+			}
+			return candidates;
+		}
+		return collectCandidates(key);
+	}
+
+	/**
+	 * Returns the candidates for a key, from the index segments
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - the literal values defined for that key, from the most
+	 *         important file to the less important one
+	 */
+	private Candidate[] collectCandidates(String key) {
+		Candidate[] firstCandidates = null;
+		List<Candidate> candidates = null;
+		int foundSegments = 0;
+		for (int i = 0; i < segments.length; i++) {
+			Candidate[] segmentCandidates = segments[i].getCandidates(key);
+			if (segmentCandidates == null) {
+				continue;
+			}
+			foundSegments++;
+			if (firstCandidates == null && !staleSegments[i]) {
+				// usually the only segment defining the key
+				firstCandidates = segmentCandidates;
+				continue;
+			}
+			if (candidates == null) {
+				candidates = new ArrayList<Candidate>();
+			}
+			for (Candidate candidate : segmentCandidates) {
+				if (!staleSegments[i]
+						|| fileContents.get(candidate.fileName) == candidate.fileContent) {
+					candidates.add(candidate);
+				}
+			}
+		}
+		if (candidates == null) {
+			return firstCandidates == null ? NO_CANDIDATE : firstCandidates;
+		}
+		if (firstCandidates != null) {
+			Collections.addAll(candidates, firstCandidates);
+		}
+		if (foundSegments > 1) {
+			// each segment gives its candidates by descending priority
+			Collections.sort(candidates, new Comparator<Candidate>() {
+				/**
+				 * {@inherit}
+				 */
+				@Override
+				public int compare(Candidate first, Candidate second) {
+					return filePositions.get(second.fileName).compareTo(
+							filePositions.get(first.fileName));
+				}
+			});
+		}
+		return candidates.toArray(NO_CANDIDATE);
+	}
+
+	/**
+	 * May an indexed file define a key
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - false if no indexed file defines the key, true if one may
+	 *         define it
+	 */
+	private boolean indexMayDefine(String key) {
+		for (PropertyIndex segment : segments) {
+			if (segment.mayDefine(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the candidates for a key, looking it up in each file
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - the literal values defined for that key, from the most
+	 *         important file to the less important one
+	 */
+	private Candidate[] walkCandidates(String key) {
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		boolean indexMayDefine = indexMayDefine(key);
+		for (int file = fileNames.size() - 1; file >= 0; file--) {
+			String fileName = fileNames.get(file);
+			PropertyTable fileContent = fileContents.get(fileName);
+			if (fileContent != null && !indexMayDefine) {
+				// filtered out by the index
+				continue;
+			}
+			if (fileContent == null) {
+				fileContent = lazyFiles.get(fileName).getContent();
+			}
+			int entry = fileContent.find(key);
+			if (entry != -1) {
+				candidates.add(new Candidate(fileName, fileContent, entry));
+			}
+		}
+		return candidates.toArray(NO_CANDIDATE);
+	}
+
+	/**
+	 * Is the file as parameter in this stack
+	 * 
+	 * @param fileName
+	 *            : file name
+	 * @return - true if it is in
+	 */
+	boolean containsFile(String fileName) {
+		return fileContents.containsKey(fileName)
+				|| lazyFiles.containsKey(fileName);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the number of files in this stack
+	 */
+	int size() {
+		return fileNames.size();
+	}
+
+	/**
+	 * A literal value defined for a key by one of the files
+	 */
+	static final class Candidate {
+
+		/** File defining the value **/
+		private final String fileName;
+
+		/** File properties **/
+		private final PropertyTable fileContent;
+
+		/** Entry of the value in the file properties **/
+		private final int entry;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param fileName
+		 *            : see attribute
+		 * @param fileContent
+		 *            : see attribute
+		 * @param entry
+		 *            : see attribute
+		 */
+		Candidate(String fileName, PropertyTable fileContent, int entry) {
+			this.fileName = fileName;
+			this.fileContent = fileContent;
+			this.entry = entry;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the fileName
+		 */
+		String getFileName() {
+			return fileName;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the literal value (decoded on first call)
+		 */
+		String getLiteral() {
+			return fileContent.getLiteral(entry);
+		}
+
+	}
+
+}
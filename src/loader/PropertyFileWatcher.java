@@ -0,0 +1,201 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watcher of the property files of a {@link BasicResourcesLoader} (see
+ * {@link BasicResourcesLoader#startWatching(long)}). A daemon thread polls the
+ * last modification date and size of the files found on the file system. A
+ * change is debounced : the file is only reloaded once it did not change
+ * during a whole period (so that a file being written is not read).
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class PropertyFileWatcher implements Runnable {
+
+	/** Watched loader **/
+	private final BasicResourcesLoader loader;
+
+	/** Executor polling the files **/
+	private final ScheduledExecutorService executor;
+
+	/**
+	 * Stamps of the files when they were last reloaded (or first seen), sorted
+	 * by file name (only used by the polling thread)
+	 */
+	private final Map<String, FileStamp> stamps;
+
+	/**
+	 * Stamps of the changed files not reloaded yet, sorted by file name (only
+	 * used by the polling thread)
+	 */
+	private final Map<String, FileStamp> pendingStamps;
+
+	/**
+	 * Constructor - starts polling
+	 * 
+	 * @param loader
+	 *            : see attribute
+	 * @param period
+	 *            : polling period, in milliseconds
+	 */
+	PropertyFileWatcher(BasicResourcesLoader loader, long period) {
+		this.loader = loader;
+		stamps = new HashMap<String, FileStamp>();
+		pendingStamps = new HashMap<String, FileStamp>();
+		executor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					/**
+					 * {@inherit}
+					 */
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable,
+								"Property files watcher");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		// record the current stamps right now
+		executor.execute(this);
+		executor.scheduleWithFixedDelay(this, period, period,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops polling
+	 */
+	void stop() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public void run() {
+		for (String fileName : loader.getFileStack().getFileNames()) {
+			File file = getFile(fileName);
+			if (file == null) {
+				// not on the file system (or removed) : can not be watched
+				continue;
+			}
+			FileStamp stamp = new FileStamp(file.lastModified(), file.length());
+			FileStamp knownStamp = stamps.get(fileName);
+			if (knownStamp == null) {
+				// first time the file is seen
+				stamps.put(fileName, stamp);
+			} else if (knownStamp.equals(stamp)) {
+				pendingStamps.remove(fileName);
+			} else if (stamp.equals(pendingStamps.get(fileName))) {
+				// the file did not change during a period : reload it
+				pendingStamps.remove(fileName);
+				stamps.put(fileName, stamp);
+				try {
+					loader.reloadPropertyFile(fileName);
+				} catch (RuntimeException e) {
+					// the errors are notified to the loader listeners. Keep on
+					// watching the other files
+				}
+			} else {
+				// the file is changing : wait for a period without change
+				pendingStamps.put(fileName, stamp);
+			}
+		}
+	}
+
+	/**
+	 * Returns a file on the file system
+	 * 
+	 * @param fileName
+	 *            : property file name
+	 * @return - the file or null if the file is not found on the file system
+	 */
+	private File getFile(String fileName) {
+		URL resourceURL = loader.getClassLoader().getResource(fileName);
+		if (resourceURL == null || !"file".equals(resourceURL.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(resourceURL.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Last modification date and size of a file
+	 */
+	private static final class FileStamp {
+
+		/** Last modification date **/
+		private final long lastModified;
+
+		/** Size **/
+		private final long length;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param lastModified
+		 *            : see attribute
+		 * @param length
+		 *            : see attribute
+		 */
+		FileStamp(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FileStamp)) {
+				return false;
+			}
+			FileStamp other = (FileStamp) obj;
+			return lastModified == other.lastModified && length == other.length;
+		}
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public int hashCode() {
+			return (int) (lastModified ^ (lastModified >>> 32) ^ length);
+		}
+
+	}
+
+}
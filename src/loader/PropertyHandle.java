@@ -0,0 +1,150 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Accessor to a property, bound once to its key and reader (see
+ * {@link BasicResourcesLoader#getHandle(String, PropertyReader)}). The handle
+ * caches the property value : reading it costs a volatile read and a soft
+ * reference read, until the value changes in the loader container. The handle
+ * is then marked as stale and resolves the property again through its loader
+ * on next read. The cached value is softly referenced : once the container
+ * evicted it (see
+ * {@link container.ResourcesContainer#setMemoryBudget(long, container.PropertyWeigher)}
+ * ), the handle does not keep it in memory either.<br>
+ * Handles are meant for the properties read very often (by a render loop for
+ * instance). They can be shared between threads.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ * 
+ * @param T
+ *            : type of the property value
+ */
+public final class PropertyHandle<T> {
+
+	/**
+	 * Updater of the cached value (a class literal can only give the raw
+	 * handle type)
+	 */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<PropertyHandle, Object> VALUE_UPDATER = AtomicReferenceFieldUpdater
+			.newUpdater(PropertyHandle.class, Object.class, "value");
+
+	/** Cached value of a property not found **/
+	private static final Object NOT_FOUND = new Object();
+
+	/** Loader resolving the property **/
+	private final BasicResourcesLoader loader;
+
+	/** Property key **/
+	private final String key;
+
+	/** Property reader **/
+	private final PropertyReader<T> reader;
+
+	/**
+	 * Soft reference to the cached value ({@link #NOT_FOUND} if the property
+	 * was not found) or a {@link Stale} marker when it must be resolved again
+	 */
+	private volatile Object value;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param loader
+	 *            : see attribute
+	 * @param key
+	 *            : see attribute
+	 * @param reader
+	 *            : see attribute
+	 */
+	PropertyHandle(BasicResourcesLoader loader, String key,
+			PropertyReader<T> reader) {
+		this.loader = loader;
+		this.key = key;
+		this.reader = reader;
+		this.value = new Stale();
+	}
+
+	/**
+	 * Returns the property value
+	 * 
+	 * @return - the property value or null if it was not found
+	 * @see BasicResourcesLoader#getProperty(String, PropertyReader)
+	 */
+	@SuppressWarnings("unchecked")
+	public T get() {
+		Object cachedValue = value;
+		if (cachedValue instanceof SoftReference) {
+			Object referencedValue = ((SoftReference<?>) cachedValue).get();
+			if (referencedValue == NOT_FOUND) {
+				return null;
+			}
+			if (referencedValue != null) {
+				return (T) referencedValue;
+			}
+			// collected : resolved again
+		}
+		T resolvedValue = loader.getProperty(key, reader);
+		// keep the value unless the handle was invalidated meanwhile (the
+		// marker is then another one)
+		VALUE_UPDATER.compareAndSet(this, cachedValue,
+				new SoftReference<Object>(resolvedValue == null ? NOT_FOUND
+						: resolvedValue));
+		return resolvedValue;
+	}
+
+	/**
+	 * Marks the handle as stale : the property will be resolved again on next
+	 * read
+	 */
+	void invalidate() {
+		value = new Stale();
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the key
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the reader
+	 */
+	public PropertyReader<T> getReader() {
+		return reader;
+	}
+
+	/**
+	 * Marker of a stale value (a new marker is used for each invalidation)
+	 */
+	private static final class Stale {
+		// marker only
+	}
+
+}
@@ -0,0 +1,369 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import loader.file.PropertyTable;
+
+/**
+ * Merged index of the property files of a {@link PropertyFileStack} : for each
+ * key, the entries that define it, from the most important file to the less
+ * important one.<br>
+ * The index only holds integers : the keys are never built as String but
+ * compared with the file tables ones. An index therefore stays small even for
+ * memory mapped files of hundreds of mega bytes. It is immutable once built.<br>
+ * A {@link KeyFilter} over the indexed keys answers the lookups of undefined
+ * keys without reading the file tables.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class PropertyIndex {
+
+	/** Empty index **/
+	static final PropertyIndex EMPTY = build(new String[0],
+			new PropertyTable[0]);
+
+	/** File names, by descending priority **/
+	private final String[] fileNames;
+
+	/** File tables, by descending priority **/
+	private final PropertyTable[] tables;
+
+	/**
+	 * Hash table : first node + 1 of each key in each slot, 0 for empty slots
+	 */
+	private final int[] slots;
+
+	/** File (index in the descending priority arrays) of each node **/
+	private final int[] nodeFiles;
+
+	/** Table entry of each node **/
+	private final int[] nodeEntries;
+
+	/** Next node + 1 for the same key, 0 for the last one **/
+	private final int[] nodeNexts;
+
+	/** Filter of the indexed keys **/
+	private final KeyFilter keyFilter;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param fileNames
+	 *            : see attribute
+	 * @param tables
+	 *            : see attribute
+	 * @param slots
+	 *            : see attribute
+	 * @param nodeFiles
+	 *            : see attribute
+	 * @param nodeEntries
+	 *            : see attribute
+	 * @param nodeNexts
+	 *            : see attribute
+	 */
+	private PropertyIndex(String[] fileNames, PropertyTable[] tables,
+			int[] slots, int[] nodeFiles, int[] nodeEntries, int[] nodeNexts) {
+		this.fileNames = fileNames;
+		this.tables = tables;
+		this.slots = slots;
+		this.nodeFiles = nodeFiles;
+		this.nodeEntries = nodeEntries;
+		this.nodeNexts = nodeNexts;
+		this.keyFilter = buildFilter(tables, slots, nodeFiles, nodeEntries);
+	}
+
+	/**
+	 * Builds the filter of the indexed keys, from the head node of each key
+	 * 
+	 * @param tables
+	 *            : file tables, by descending priority
+	 * @param slots
+	 *            : see attribute
+	 * @param nodeFiles
+	 *            : see attribute
+	 * @param nodeEntries
+	 *            : see attribute
+	 * @return - the filter built
+	 */
+	private static KeyFilter buildFilter(PropertyTable[] tables, int[] slots,
+			int[] nodeFiles, int[] nodeEntries) {
+		int keysCount = 0;
+		for (int slot : slots) {
+			if (slot != 0) {
+				keysCount++;
+			}
+		}
+		KeyFilter filter = new KeyFilter(keysCount);
+		for (int slot : slots) {
+			if (slot != 0) {
+				filter.add(tables[nodeFiles[slot - 1]]
+						.getKeyHash(nodeEntries[slot - 1]));
+			}
+		}
+		return filter;
+	}
+
+	/**
+	 * Builds the index of files
+	 * 
+	 * @param fileNames
+	 *            : file names, by descending priority
+	 * @param tables
+	 *            : file tables, by descending priority
+	 * @return - the index built
+	 */
+	static PropertyIndex build(String[] fileNames, PropertyTable[] tables) {
+		int nodesCount = 0;
+		for (PropertyTable table : tables) {
+			nodesCount += table.size();
+		}
+		int slotsCount = 2;
+		while (slotsCount < nodesCount * 2) {
+			slotsCount <<= 1;
+		}
+		int mask = slotsCount - 1;
+		int[] slots = new int[slotsCount];
+		int[] tails = new int[slotsCount];
+		int[] nodeFiles = new int[nodesCount];
+		int[] nodeEntries = new int[nodesCount];
+		int[] nodeNexts = new int[nodesCount];
+
+		// files are walked by descending priority : a node is always appended
+		// after the nodes of more important files
+		int node = 0;
+		for (int file = 0; file < tables.length; file++) {
+			PropertyTable table = tables[file];
+			for (int entry = 0; entry < table.size(); entry++, node++) {
+				nodeFiles[node] = file;
+				nodeEntries[node] = entry;
+				int hash = table.getKeyHash(entry);
+				int slot = spread(hash) & mask;
+				while (slots[slot] != 0) {
+					int head = slots[slot] - 1;
+					PropertyTable headTable = tables[nodeFiles[head]];
+					int headEntry = nodeEntries[head];
+					if (headTable.getKeyHash(headEntry) == hash
+							&& headTable.keyEquals(headEntry, table, entry)) {
+						break;
+					}
+					slot = (slot + 1) & mask;
+				}
+				if (slots[slot] == 0) {
+					// first definition of that key
+					slots[slot] = node + 1;
+				} else {
+					nodeNexts[tails[slot] - 1] = node + 1;
+				}
+				tails[slot] = node + 1;
+			}
+		}
+		return new PropertyIndex(fileNames, tables, slots, nodeFiles,
+				nodeEntries, nodeNexts);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the indexed file names, by descending priority (not to be
+	 *         modified)
+	 */
+	String[] getFileNames() {
+		return fileNames;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the indexed file tables, by descending priority (not to be
+	 *         modified)
+	 */
+	PropertyTable[] getTables() {
+		return tables;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the number of indexed entries
+	 */
+	int size() {
+		return nodeFiles.length;
+	}
+
+	/**
+	 * Reads an index written by {@link #writeTo(DataOutputStream)}
+	 * 
+	 * @param buffer
+	 *            : buffer positioned on the index, positioned after it on
+	 *            return
+	 * @param fileNames
+	 *            : indexed file names, by descending priority
+	 * @param tables
+	 *            : indexed file tables, by descending priority
+	 * @return - the index read
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not hold a valid index
+	 */
+	static PropertyIndex readFrom(ByteBuffer buffer, String[] fileNames,
+			PropertyTable[] tables) {
+		int[] slots = PropertyTable.readInts(buffer, buffer.getInt());
+		int nodesCount = buffer.getInt();
+		int[] nodeFiles = PropertyTable.readInts(buffer, nodesCount);
+		int[] nodeEntries = PropertyTable.readInts(buffer, nodesCount);
+		int[] nodeNexts = PropertyTable.readInts(buffer, nodesCount);
+		if (Integer.bitCount(slots.length) != 1) {
+			throw new IllegalArgumentException("Invalid index slots count");
+		}
+		checkRanges(tables, slots, nodeFiles, nodeEntries, nodeNexts);
+		return new PropertyIndex(fileNames, tables, slots, nodeFiles,
+				nodeEntries, nodeNexts);
+	}
+
+	/**
+	 * Verifies that an index read from a binary form only references valid
+	 * nodes, files and entries, that the nodes of a key are chained forward
+	 * and that the hash table has empty slots (so that the lookups end)
+	 * 
+	 * @param tables
+	 *            : indexed file tables, by descending priority
+	 * @param slots
+	 *            : see attribute
+	 * @param nodeFiles
+	 *            : see attribute
+	 * @param nodeEntries
+	 *            : see attribute
+	 * @param nodeNexts
+	 *            : see attribute
+	 * @throws IllegalArgumentException
+	 *             if the index is corrupted
+	 */
+	private static void checkRanges(PropertyTable[] tables, int[] slots,
+			int[] nodeFiles, int[] nodeEntries, int[] nodeNexts) {
+		int nodesCount = nodeFiles.length;
+		boolean emptySlot = false;
+		for (int slot : slots) {
+			if (slot < 0 || slot > nodesCount) {
+				throw new IllegalArgumentException("Invalid index slot");
+			}
+			emptySlot |= slot == 0;
+		}
+		if (!emptySlot) {
+			throw new IllegalArgumentException("Full index slots");
+		}
+		for (int node = 0; node < nodesCount; node++) {
+			int file = nodeFiles[node];
+			if (file < 0 || file >= tables.length || nodeEntries[node] < 0
+					|| nodeEntries[node] >= tables[file].size()) {
+				throw new IllegalArgumentException("Invalid index node");
+			}
+			int next = nodeNexts[node];
+			if (next != 0 && (next <= node + 1 || next > nodesCount)) {
+				throw new IllegalArgumentException("Invalid index node chain");
+			}
+		}
+	}
+
+	/**
+	 * Writes this index in a binary form (the files are not written)
+	 * 
+	 * @param out
+	 *            : output stream
+	 * @throws IOException
+	 *             if the stream can not be written
+	 */
+	void writeTo(DataOutputStream out) throws IOException {
+		out.writeInt(slots.length);
+		PropertyTable.writeInts(out, slots, slots.length);
+		out.writeInt(nodeFiles.length);
+		PropertyTable.writeInts(out, nodeFiles, nodeFiles.length);
+		PropertyTable.writeInts(out, nodeEntries, nodeEntries.length);
+		PropertyTable.writeInts(out, nodeNexts, nodeNexts.length);
+	}
+
+	/**
+	 * Returns the candidates for a key
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - the literal values defined for that key, from the most
+	 *         important file to the less important one (null if no file
+	 *         defines it)
+	 */
+	PropertyFileStack.Candidate[] getCandidates(String key) {
+		int hash = key.hashCode();
+		if (!keyFilter.mayContain(hash)) {
+			// surely not defined
+			return null;
+		}
+		int mask = slots.length - 1;
+		int slot = spread(hash) & mask;
+		while (slots[slot] != 0) {
+			int head = slots[slot] - 1;
+			PropertyTable headTable = tables[nodeFiles[head]];
+			int headEntry = nodeEntries[head];
+			if (headTable.getKeyHash(headEntry) == hash
+					&& headTable.keyEquals(headEntry, key)) {
+				// count then collect the nodes of that key
+				int count = 0;
+				for (int node = head + 1; node != 0; node = nodeNexts[node - 1]) {
+					count++;
+				}
+				PropertyFileStack.Candidate[] candidates = new PropertyFileStack.Candidate[count];
+				int i = 0;
+				for (int node = head + 1; node != 0; node = nodeNexts[node - 1]) {
+					int file = nodeFiles[node - 1];
+					candidates[i++] = new PropertyFileStack.Candidate(
+							fileNames[file], tables[file], nodeEntries[node - 1]);
+				}
+				return candidates;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * May an indexed file define a key
+	 * 
+	 * @param key
+	 *            : key
+	 * @return - false if no indexed file defines the key, true if one may
+	 *         define it
+	 */
+	boolean mayDefine(String key) {
+		return keyFilter.mayContain(key.hashCode());
+	}
+
+	/**
+	 * Spreads the high bits of a hash on the low ones, that select the slots
+	 * 
+	 * @param hash
+	 *            : key hash
+	 * @return - the spread hash
+	 */
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+}
@@ -0,0 +1,533 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import loader.file.PropertyTable;
+
+/**
+ * Binary snapshot of the property files of a {@link BasicResourcesLoader} (see
+ * {@link BasicResourcesLoader#compileSnapshot(File)}). A snapshot holds the
+ * files bytes and tables, their merged index and the typed values already
+ * read by direct value converters, so that loading it only maps the snapshot
+ * file : no file is parsed and no value is read again.<br>
+ * The snapshot records a fingerprint of the source files (their names, last
+ * modification dates and sizes) : it is considered as stale when one of them
+ * changed.<br>
+ * Format : magic number, format version, fingerprint, files (name and table,
+ * by ascending priority), merged index, typed values (key, reader class,
+ * representation and value).
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+final class PropertySnapshot {
+
+	/** Magic number of the snapshot files ("GPLS") **/
+	private static final int MAGIC = 0x47504C53;
+
+	/** Version of the snapshot format **/
+	private static final int FORMAT_VERSION = 1;
+
+	/** Strings encoding **/
+	private static final String ENCODING = "UTF-8";
+
+	/** Type tag of String values **/
+	private static final byte STRING_VALUE = 1;
+
+	/** Type tag of Integer values **/
+	private static final byte INTEGER_VALUE = 2;
+
+	/** Type tag of Long values **/
+	private static final byte LONG_VALUE = 3;
+
+	/** Type tag of Float values **/
+	private static final byte FLOAT_VALUE = 4;
+
+	/** Type tag of Double values **/
+	private static final byte DOUBLE_VALUE = 5;
+
+	/** Type tag of Boolean values **/
+	private static final byte BOOLEAN_VALUE = 6;
+
+	/** Type tag of Character values **/
+	private static final byte CHARACTER_VALUE = 7;
+
+	/** Type tag of BigDecimal values **/
+	private static final byte BIG_DECIMAL_VALUE = 8;
+
+	/** Type tag of Color values **/
+	private static final byte COLOR_VALUE = 9;
+
+	/** Files stack read **/
+	private final PropertyFileStack fileStack;
+
+	/** Typed values read, sorted by key **/
+	private final Map<String, SnapshotValue> values;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param fileStack
+	 *            : see attribute
+	 * @param values
+	 *            : see attribute
+	 */
+	private PropertySnapshot(PropertyFileStack fileStack,
+			Map<String, SnapshotValue> values) {
+		this.fileStack = fileStack;
+		this.values = values;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the files stack read
+	 */
+	PropertyFileStack getFileStack() {
+		return fileStack;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the typed values read, sorted by key (unmodifiable)
+	 */
+	Map<String, SnapshotValue> getValues() {
+		return values;
+	}
+
+	/**
+	 * Can the value as parameter be written in a snapshot
+	 * 
+	 * @param value
+	 *            : value
+	 * @return - true if its type is supported by the snapshot format
+	 */
+	static boolean isSupportedValue(Object value) {
+		return value instanceof String || value instanceof Integer
+				|| value instanceof Long || value instanceof Float
+				|| value instanceof Double || value instanceof Boolean
+				|| value instanceof Character || value instanceof BigDecimal
+				|| value instanceof Color;
+	}
+
+	/**
+	 * Writes a snapshot
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file (replaced if it exists)
+	 * @param fileStack
+	 *            : files stack, without any lazy file pending
+	 * @param values
+	 *            : typed values to write (of supported types)
+	 * @param classLoader
+	 *            : class loader used to find the source files
+	 * @throws IOException
+	 *             if a source file can no longer be found or the snapshot
+	 *             can not be written
+	 */
+	static void write(File snapshotFile, PropertyFileStack fileStack,
+			List<SnapshotValue> values, ClassLoader classLoader)
+			throws IOException {
+		List<String> fileNames = fileStack.getFileNames();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(snapshotFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(getFingerprint(fileNames, classLoader));
+			out.writeInt(fileNames.size());
+			for (String fileName : fileNames) {
+				writeString(out, fileName);
+				fileStack.getFileContent(fileName).writeTo(out);
+			}
+			fileStack.getMergedIndex().writeTo(out);
+			out.writeInt(values.size());
+			for (SnapshotValue value : values) {
+				writeString(out, value.getKey());
+				writeString(out, value.getReaderClassName());
+				writeString(out, value.getRepresentation());
+				writeValue(out, value.getValue());
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a snapshot, if it is still valid
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file
+	 * @param classLoader
+	 *            : class loader used to find the source files
+	 * @return - the snapshot read or null if the file does not exist, is not a
+	 *         valid snapshot or is stale
+	 * @throws IOException
+	 *             if the snapshot can not be read
+	 */
+	static PropertySnapshot read(File snapshotFile, ClassLoader classLoader)
+			throws IOException {
+		if (!snapshotFile.isFile()) {
+			return null;
+		}
+		ByteBuffer buffer;
+		RandomAccessFile randomAccessFile = new RandomAccessFile(snapshotFile,
+				"r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+					.size());
+		} finally {
+			randomAccessFile.close();
+		}
+
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				return null;
+			}
+			long fingerprint = buffer.getLong();
+
+			// files
+			int filesCount = buffer.getInt();
+			List<String> fileNames = new ArrayList<String>();
+			Map<String, PropertyTable> fileContents = new HashMap<String, PropertyTable>();
+			for (int i = 0; i < filesCount; i++) {
+				String fileName = readString(buffer);
+				fileNames.add(fileName);
+				fileContents.put(fileName, PropertyTable.readFrom(buffer));
+			}
+			if (fingerprint != getFingerprint(fileNames, classLoader)) {
+				// a source file changed
+				return null;
+			}
+
+			// merged index (files by descending priority)
+			String[] indexedFileNames = new String[filesCount];
+			PropertyTable[] indexedTables = new PropertyTable[filesCount];
+			for (int i = 0; i < filesCount; i++) {
+				indexedFileNames[i] = fileNames.get(filesCount - 1 - i);
+				indexedTables[i] = fileContents.get(indexedFileNames[i]);
+			}
+			PropertyIndex mergedIndex = PropertyIndex.readFrom(buffer,
+					indexedFileNames, indexedTables);
+
+			// typed values
+			int valuesCount = buffer.getInt();
+			Map<String, SnapshotValue> values = new HashMap<String, SnapshotValue>();
+			for (int i = 0; i < valuesCount; i++) {
+				SnapshotValue value = new SnapshotValue(readString(buffer),
+						readString(buffer), readString(buffer),
+						readValue(buffer));
+				values.put(value.getKey(), value);
+			}
+			return new PropertySnapshot(PropertyFileStack.of(fileNames,
+					fileContents, mergedIndex), Collections
+					.unmodifiableMap(values));
+		} catch (BufferUnderflowException e) {
+			// truncated snapshot
+			return null;
+		} catch (IllegalArgumentException e) {
+			// corrupted snapshot
+			return null;
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of source files : a checksum of their names,
+	 * last modification dates and sizes
+	 * 
+	 * @param fileNames
+	 *            : file names, by ascending priority
+	 * @param classLoader
+	 *            : class loader used to find the files
+	 * @return - the fingerprint
+	 * @throws IOException
+	 *             if a file can not be found
+	 */
+	private static long getFingerprint(List<String> fileNames,
+			ClassLoader classLoader) throws IOException {
+		CRC32 checksum = new CRC32();
+		for (String fileName : fileNames) {
+			URL resourceURL = classLoader.getResource(fileName);
+			if (resourceURL == null) {
+				throw new IOException("The file " + fileName
+						+ " can no longer be found");
+			}
+			long lastModified;
+			long length;
+			File file = null;
+			if ("file".equals(resourceURL.getProtocol())) {
+				try {
+					file = new File(resourceURL.toURI());
+				} catch (URISyntaxException e) {
+					// not a file path : use a connection
+				}
+			}
+			if (file != null) {
+				lastModified = file.lastModified();
+				length = file.length();
+			} else {
+				URLConnection connection = resourceURL.openConnection();
+				lastModified = connection.getLastModified();
+				length = connection.getContentLength();
+			}
+			checksum.update(fileName.getBytes(ENCODING));
+			for (int shift = 0; shift < 64; shift += 8) {
+				checksum.update((int) (lastModified >>> shift));
+				checksum.update((int) (length >>> shift));
+			}
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Writes a string
+	 * 
+	 * @param out
+	 *            : output stream
+	 * @param string
+	 *            : string to write
+	 * @throws IOException
+	 *             if the stream can not be written
+	 */
+	private static void writeString(DataOutputStream out, String string)
+			throws IOException {
+		byte[] bytes = string.getBytes(ENCODING);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string
+	 * 
+	 * @param buffer
+	 *            : buffer positioned on the string, positioned after it on
+	 *            return
+	 * @return - the string read
+	 * @throws UnsupportedEncodingException
+	 *             never (UTF-8 is always supported)
+	 */
+	private static String readString(ByteBuffer buffer)
+			throws UnsupportedEncodingException {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid string length");
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, ENCODING);
+	}
+
+	/**
+	 * Writes a typed value
+	 * 
+	 * @param out
+	 *            : output stream
+	 * @param value
+	 *            : value (of a supported type)
+	 * @throws IOException
+	 *             if the stream can not be written
+	 */
+	private static void writeValue(DataOutputStream out, Object value)
+			throws IOException {
+		if (value instanceof String) {
+			out.writeByte(STRING_VALUE);
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INTEGER_VALUE);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG_VALUE);
+			out.writeLong((Long) value);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT_VALUE);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE_VALUE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN_VALUE);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Character) {
+			out.writeByte(CHARACTER_VALUE);
+			out.writeChar((Character) value);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL_VALUE);
+			writeString(out, value.toString());
+		} else {
+			out.writeByte(COLOR_VALUE);
+			out.writeInt(((Color) value).getRGB());
+		}
+	}
+
+	/**
+	 * Reads a typed value
+	 * 
+	 * @param buffer
+	 *            : buffer positioned on the value, positioned after it on
+	 *            return
+	 * @return - the value read
+	 * @throws IllegalArgumentException
+	 *             if the value type is unknown
+	 * @throws UnsupportedEncodingException
+	 *             never (UTF-8 is always supported)
+	 */
+	private static Object readValue(ByteBuffer buffer)
+			throws UnsupportedEncodingException {
+		byte type = buffer.get();
+		switch (type) {
+		case STRING_VALUE:
+			return readString(buffer);
+		case INTEGER_VALUE:
+			return buffer.getInt();
+		case LONG_VALUE:
+			return buffer.getLong();
+		case FLOAT_VALUE:
+			return buffer.getFloat();
+		case DOUBLE_VALUE:
+			return buffer.getDouble();
+		case BOOLEAN_VALUE:
+			return buffer.get() != 0;
+		case CHARACTER_VALUE:
+			return buffer.getChar();
+		case BIG_DECIMAL_VALUE:
+			return new BigDecimal(readString(buffer));
+		case COLOR_VALUE:
+			return new Color(buffer.getInt(), true);
+		default:
+			throw new IllegalArgumentException("Unknown value type " + type);
+		}
+	}
+
+	/**
+	 * Typed value of a snapshot : the value read for a representation by a
+	 * direct value converter
+	 */
+	static final class SnapshotValue {
+
+		/** Property key **/
+		private final String key;
+
+		/** Class name of the reader that read the value **/
+		private final String readerClassName;
+
+		/** Representation read **/
+		private final String representation;
+
+		/** Value read **/
+		private final Object value;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param key
+		 *            : see attribute
+		 * @param readerClassName
+		 *            : see attribute
+		 * @param representation
+		 *            : see attribute
+		 * @param value
+		 *            : see attribute
+		 */
+		SnapshotValue(String key, String readerClassName,
+				String representation, Object value) {
+			this.key = key;
+			this.readerClassName = readerClassName;
+			this.representation = representation;
+			this.value = value;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the key
+		 */
+		String getKey() {
+			return key;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the readerClassName
+		 */
+		String getReaderClassName() {
+			return readerClassName;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the representation
+		 */
+		String getRepresentation() {
+			return representation;
+		}
+
+		/**
+		 * Getter -
+		 * 
+		 * @return the value
+		 */
+		Object getValue() {
+			return value;
+		}
+
+		/**
+		 * Is this value the one the reader as parameter would read for the
+		 * representation as parameter
+		 * 
+		 * @param reader
+		 *            : reader
+		 * @param literalValue
+		 *            : representation to read
+		 * @return - true if this value can be used instead of reading the
+		 *         representation
+		 */
+		boolean matches(PropertyReader<?> reader, String literalValue) {
+			return representation.equals(literalValue)
+					&& readerClassName.equals(reader.getClass().getName());
+		}
+
+	}
+
+}
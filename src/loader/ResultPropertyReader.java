@@ -0,0 +1,48 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * {@link PropertyReader} that can report an invalid representation without
+ * throwing an exception. The {@link BasicResourcesLoader} parses the
+ * properties through {@link #parseProperty(String)} when the reader implements
+ * it, so that files holding many invalid values, or validation sweeps, do not
+ * pay for a stack trace and a formatted message per error.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ * 
+ * @param T
+ *            : type of property value for the property instantiated
+ */
+public interface ResultPropertyReader<T> extends PropertyReader<T> {
+
+	/**
+	 * Reads a property value from its string representation in the property
+	 * file
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation in the property text file
+	 * @return - the result holding the property value (not null) or the error
+	 *         found (its message parameters are the ones the
+	 *         {@link PropertyReader#readProperty(String)} message would use)
+	 */
+	ParseResult<T> parseProperty(String propertyRepresentation);
+
+}
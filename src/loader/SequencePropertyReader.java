@@ -0,0 +1,53 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader;
+
+/**
+ * {@link PropertyReader} that can also read a property from a region of a
+ * character sequence, without building an intermediate String. It suits the
+ * values read from a byte backed source (a memory mapped file, a network
+ * buffer...).
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ * 
+ * @param T
+ *            : type of property value for the property instantiated
+ */
+public interface SequencePropertyReader<T> extends PropertyReader<T> {
+
+	/**
+	 * Reads and returns property value from its representation in a region of
+	 * a character sequence
+	 * 
+	 * @param sequence
+	 *            : character sequence holding the property representation
+	 * @param start
+	 *            : representation start in the sequence
+	 * @param end
+	 *            : representation end in the sequence (excluded)
+	 * @return - the property value (not null)
+	 * @throws IllegalArgumentException
+	 *             : if the representation can not be parsed (see
+	 *             {@link PropertyReader#readProperty(String)})
+	 */
+	T readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException;
+
+}
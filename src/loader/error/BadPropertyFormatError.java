@@ -18,9 +18,13 @@
 
 package loader.error;
 
+import loader.messages.DMLoader;
+
 /**
  * Class standing for a property bad format (it represents a property format
- * error in one property file)
+ * error in one property file). The error reported by a
+ * {@link loader.ResultPropertyReader} is held as a message key and its
+ * parameters : its message is only formatted when it is asked for.
  * 
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
@@ -33,8 +37,17 @@ public class BadPropertyFormatError {
 	/** Value that was found (and invalid) **/
 	private final String errorValue;
 
-	/** Internationalized message sent by the reader **/
-	private final String readerErrorMessage;
+	/**
+	 * Internationalized message sent by the reader (null until formatted when
+	 * the error is described by a code)
+	 */
+	private volatile String readerErrorMessage;
+
+	/** Key of the reader error message (null if the message was given) **/
+	private final String errorCode;
+
+	/** Parameters of the reader error message **/
+	private final Object[] errorArguments;
 
 	/** File containing the erroneous property value **/
 	private final String fileName;
@@ -55,6 +68,31 @@ public class BadPropertyFormatError {
 		this.key = key;
 		this.errorValue = errorValue;
 		this.readerErrorMessage = readerErrorMessage;
+		this.errorCode = null;
+		this.errorArguments = null;
+	}
+
+	/**
+	 * Constructor - for an error described by a message key
+	 * 
+	 * @param fileName
+	 *            : see attribute
+	 * @param key
+	 *            : see attribute
+	 * @param errorValue
+	 *            : see attribute
+	 * @param errorCode
+	 *            : see attribute
+	 * @param errorArguments
+	 *            : see attribute
+	 */
+	public BadPropertyFormatError(String fileName, String key,
+			String errorValue, String errorCode, Object[] errorArguments) {
+		this.fileName = fileName;
+		this.key = key;
+		this.errorValue = errorValue;
+		this.errorCode = errorCode;
+		this.errorArguments = errorArguments;
 	}
 
 	/**
@@ -76,12 +114,39 @@ public class BadPropertyFormatError {
 	}
 
 	/**
-	 * Getter -
+	 * Getter - formats the message on first call when the error is described
+	 * by a code
 	 * 
 	 * @return the readerErrorMessage
 	 */
 	public String getReaderErrorMessage() {
-		return readerErrorMessage;
+		String message = readerErrorMessage;
+		if (message == null && errorCode != null) {
+			// a concurrent formatting is harmless
+			message = DMLoader.getMessage(errorCode, errorArguments);
+			readerErrorMessage = message;
+		}
+		return message;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the key of the reader error message (null if the reader gave
+	 *         the message itself)
+	 */
+	public String getErrorCode() {
+		return errorCode;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the parameters of the reader error message (null if the reader
+	 *         gave the message itself)
+	 */
+	public Object[] getErrorArguments() {
+		return errorArguments;
 	}
 
 	/**
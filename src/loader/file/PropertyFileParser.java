@@ -0,0 +1,387 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Parser for property files, that follows the {@link java.util.Properties}
+ * format (comments, key / value separators, escape sequences and line
+ * continuations). It works directly on the file bytes and builds a
+ * {@link PropertyTable}, without building any String for the values : they are
+ * only decoded when first asked for.<br>
+ * Files are read as UTF-8 when their bytes are valid UTF-8, as ISO-8859-1
+ * (the {@link java.util.Properties} encoding) otherwise. As both encodings
+ * match on ASCII characters, ISO-8859-1 files with escaped non ASCII
+ * characters are read the same way.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public final class PropertyFileParser {
+
+	/** Size of the buffer used to read streams **/
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * Constructor
+	 */
+	private PropertyFileParser() {
+		// forbids instances
+	}
+
+	/**
+	 * Reads a whole stream and parses it. The stream is closed.
+	 * 
+	 * @param stream
+	 *            : stream of a property file
+	 * @return - the properties table
+	 * @throws IOException
+	 *             if the stream can not be read
+	 * @throws IllegalArgumentException
+	 *             if the file contains a malformed unicode escape sequence
+	 */
+	public static PropertyTable parse(InputStream stream) throws IOException {
+		byte[] bytes = new byte[READ_BUFFER_SIZE];
+		int length = 0;
+		try {
+			int read;
+			while ((read = stream.read(bytes, length, bytes.length - length)) != -1) {
+				length += read;
+				if (length == bytes.length) {
+					byte[] largerBytes = new byte[bytes.length * 2];
+					System.arraycopy(bytes, 0, largerBytes, 0, length);
+					bytes = largerBytes;
+				}
+			}
+		} finally {
+			stream.close();
+		}
+		return parse(ByteBuffer.wrap(bytes, 0, length));
+	}
+
+	/**
+	 * Maps a file in memory and parses it. The table built reads the mapped
+	 * bytes : only the entries offsets are stored in the heap, the values are
+	 * decoded when first asked for. The file must not be truncated while the
+	 * table is used.
+	 * 
+	 * @param file
+	 *            : property file
+	 * @return - the properties table
+	 * @throws IOException
+	 *             if the file can not be mapped
+	 * @throws IllegalArgumentException
+	 *             if the file contains a malformed unicode escape sequence or
+	 *             is too large to be mapped (2GB)
+	 */
+	public static PropertyTable map(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			// the mapping stays valid once the channel is closed
+			return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+					.size()));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Parses the property file bytes between the buffer position and limit.
+	 * The buffer is kept by the table built, it must not be modified
+	 * afterward.
+	 * 
+	 * @param data
+	 *            : property file bytes
+	 * @return - the properties table
+	 * @throws IllegalArgumentException
+	 *             if the file contains a malformed unicode escape sequence
+	 */
+	public static PropertyTable parse(ByteBuffer data) {
+		int position = data.position();
+		int limit = data.limit();
+		boolean utf8 = isValidUtf8(data, position, limit);
+		if (utf8 && limit - position >= 3 && (data.get(position) & 0xFF) == 0xEF
+				&& (data.get(position + 1) & 0xFF) == 0xBB
+				&& (data.get(position + 2) & 0xFF) == 0xBF) {
+			// skip the byte order mark
+			position += 3;
+		}
+
+		int[] rawEntries = new int[PropertyTable.ENTRY_SIZE * 64];
+		int count = 0;
+		while (position < limit) {
+			int b = data.get(position);
+			if (isWhiteSpace(b) || b == '\r' || b == '\n') {
+				// blank characters before a logical line
+				position++;
+				continue;
+			}
+			if (b == '\\' && position + 1 < limit
+					&& isLineEnd(data.get(position + 1))) {
+				// a line continuation before any character : the logical line
+				// starts on the next line (and may still be a comment, as in
+				// java.util.Properties)
+				position = skipLineContinuation(data, position + 1, limit);
+				continue;
+			}
+			if (b == '#' || b == '!') {
+				// comment line
+				position = skipToLineEnd(data, position, limit);
+				continue;
+			}
+
+			// A - key : ends on the first separator not escaped
+			int keyStart = position;
+			int keyEnd = -1;
+			boolean separatorFound = false;
+			boolean lineEnded = false;
+			while (keyEnd == -1) {
+				if (position >= limit) {
+					keyEnd = position;
+					lineEnded = true;
+					break;
+				}
+				b = data.get(position);
+				if (b == '\\') {
+					position = skipEscape(data, position, limit);
+				} else if (b == '\r' || b == '\n') {
+					keyEnd = position;
+					lineEnded = true;
+				} else if (b == '=' || b == ':') {
+					keyEnd = position++;
+					separatorFound = true;
+				} else if (isWhiteSpace(b)) {
+					keyEnd = position++;
+				} else {
+					position++;
+				}
+			}
+
+			// B - white spaces and separator before the value
+			while (!lineEnded && position < limit) {
+				b = data.get(position);
+				if (isWhiteSpace(b)) {
+					position++;
+				} else if (!separatorFound && (b == '=' || b == ':')) {
+					separatorFound = true;
+					position++;
+				} else if (b == '\\' && position + 1 < limit
+						&& isLineEnd(data.get(position + 1))) {
+					position = skipLineContinuation(data, position + 1, limit);
+				} else {
+					break;
+				}
+			}
+
+			// C - value : ends with the logical line
+			int valueStart = position;
+			while (position < limit) {
+				b = data.get(position);
+				if (b == '\\') {
+					position = skipEscape(data, position, limit);
+				} else if (b == '\r' || b == '\n') {
+					break;
+				} else {
+					position++;
+				}
+			}
+			int valueEnd = Math.min(position, limit);
+			if (valueStart > valueEnd) {
+				valueStart = valueEnd;
+			}
+
+			// store the entry
+			if (rawEntries.length < (count + 1) * PropertyTable.ENTRY_SIZE) {
+				int[] largerEntries = new int[rawEntries.length * 2];
+				System.arraycopy(rawEntries, 0, largerEntries, 0,
+						rawEntries.length);
+				rawEntries = largerEntries;
+			}
+			int offset = count * PropertyTable.ENTRY_SIZE;
+			rawEntries[offset + PropertyTable.KEY_START] = keyStart;
+			rawEntries[offset + PropertyTable.KEY_END] = keyEnd;
+			rawEntries[offset + PropertyTable.VALUE_START] = valueStart;
+			rawEntries[offset + PropertyTable.VALUE_END] = valueEnd;
+			count++;
+		}
+		return PropertyTable.build(data, utf8, rawEntries, count);
+	}
+
+	/**
+	 * Skips an escape sequence (or a line continuation)
+	 * 
+	 * @param data
+	 *            : file bytes
+	 * @param position
+	 *            : position of the back slash
+	 * @param limit
+	 *            : bytes limit
+	 * @return - the position following the sequence
+	 * @throws IllegalArgumentException
+	 *             if the sequence is a malformed unicode escape sequence
+	 */
+	private static int skipEscape(ByteBuffer data, int position, int limit) {
+		position++;
+		if (position >= limit) {
+			return position;
+		}
+		int b = data.get(position);
+		if (isLineEnd(b)) {
+			return skipLineContinuation(data, position, limit);
+		}
+		if (b == 'u') {
+			// verify the unicode escape sequence right now, as values are
+			// decoded later
+			if (position + 4 >= limit) {
+				throw new IllegalArgumentException(
+						"Malformed \\uxxxx encoding.");
+			}
+			for (int i = 1; i <= 4; i++) {
+				if (Character.digit((char) data.get(position + i), 16) == -1) {
+					throw new IllegalArgumentException(
+							"Malformed \\uxxxx encoding.");
+				}
+			}
+			return position + 5;
+		}
+		// the escaped character (possibly encoded on many bytes) is a regular
+		// character for the parser
+		return position + 1;
+	}
+
+	/**
+	 * Skips a line continuation : the line end and the white spaces that
+	 * start the next line
+	 * 
+	 * @param data
+	 *            : file bytes
+	 * @param position
+	 *            : position of the line end, following the back slash
+	 * @param limit
+	 *            : bytes limit
+	 * @return - the position of the first character of the continued line
+	 */
+	static int skipLineContinuation(ByteBuffer data, int position, int limit) {
+		if (data.get(position) == '\r' && position + 1 < limit
+				&& data.get(position + 1) == '\n') {
+			position++;
+		}
+		position++;
+		while (position < limit && isWhiteSpace(data.get(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Skips a line
+	 * 
+	 * @param data
+	 *            : file bytes
+	 * @param position
+	 *            : position in the line
+	 * @param limit
+	 *            : bytes limit
+	 * @return - the position of the line end
+	 */
+	private static int skipToLineEnd(ByteBuffer data, int position, int limit) {
+		while (position < limit && !isLineEnd(data.get(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Is the byte a white space for property files
+	 * 
+	 * @param b
+	 *            : byte
+	 * @return - true for spaces, tabulations and form feeds
+	 */
+	private static boolean isWhiteSpace(int b) {
+		return b == ' ' || b == '\t' || b == '\f';
+	}
+
+	/**
+	 * Is the byte a line end
+	 * 
+	 * @param b
+	 *            : byte
+	 * @return - true for carriage returns and line feeds
+	 */
+	private static boolean isLineEnd(int b) {
+		return b == '\r' || b == '\n';
+	}
+
+	/**
+	 * Are the bytes a valid UTF-8 sequence : no overlong form, no surrogate
+	 * and no code point above U+10FFFF
+	 * 
+	 * @param data
+	 *            : bytes
+	 * @param position
+	 *            : start position
+	 * @param limit
+	 *            : bytes limit
+	 * @return - true if they can be decoded as UTF-8
+	 */
+	private static boolean isValidUtf8(ByteBuffer data, int position, int limit) {
+		while (position < limit) {
+			int b = data.get(position) & 0xFF;
+			int continuationBytes;
+			if (b < 0x80) {
+				position++;
+				continue;
+			} else if (b >= 0xC2 && b <= 0xDF) {
+				continuationBytes = 1;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				continuationBytes = 2;
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				continuationBytes = 3;
+			} else {
+				return false;
+			}
+			if (position + continuationBytes >= limit) {
+				return false;
+			}
+			for (int i = 1; i <= continuationBytes; i++) {
+				if ((data.get(position + i) & 0xC0) != 0x80) {
+					return false;
+				}
+			}
+			// the second byte range is narrower after some lead bytes
+			int second = data.get(position + 1) & 0xFF;
+			if ((b == 0xE0 && second < 0xA0) || (b == 0xED && second > 0x9F)
+					|| (b == 0xF0 && second < 0x90)
+					|| (b == 0xF4 && second > 0x8F)) {
+				return false;
+			}
+			position += continuationBytes + 1;
+		}
+		return true;
+	}
+
+}
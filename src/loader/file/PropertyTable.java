@@ -0,0 +1,700 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.file;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Immutable table of the properties defined in a file, built by
+ * {@link PropertyFileParser}. The table keeps the file bytes and only stores,
+ * for each entry, the key hash and the offsets of the key and of the literal
+ * value in those bytes. Entries are found through an open addressing hash
+ * table. The literal values are decoded (escape sequences, line continuations
+ * and characters) the first time they are asked for, then kept. When the
+ * bytes are a memory mapped file, the heap therefore only holds the offsets
+ * index and the values actually used.<br>
+ * A table can be written in a binary form and read back without parsing the
+ * file again (see {@link #writeTo(DataOutputStream)}).<br>
+ * A table can be safely shared between threads.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public final class PropertyTable {
+
+	/** Number of integers describing an entry **/
+	static final int ENTRY_SIZE = 5;
+
+	/** Offset of the key hash in an entry description **/
+	static final int HASH = 0;
+
+	/** Offset of the key start in an entry description **/
+	static final int KEY_START = 1;
+
+	/** Offset of the key end in an entry description **/
+	static final int KEY_END = 2;
+
+	/** Offset of the value start in an entry description **/
+	static final int VALUE_START = 3;
+
+	/** Offset of the value end in an entry description **/
+	static final int VALUE_END = 4;
+
+	/** Empty table **/
+	public static final PropertyTable EMPTY = new PropertyTable(ByteBuffer
+			.allocate(0), false, new int[0], 0, new int[2]);
+
+	/** File bytes (only accessed through absolute methods) **/
+	private final ByteBuffer data;
+
+	/** Are the file bytes UTF-8 encoded (ISO-8859-1 otherwise) **/
+	private final boolean utf8;
+
+	/** Entries descriptions (see offsets constants) **/
+	private final int[] entries;
+
+	/** Number of entries **/
+	private final int size;
+
+	/** Hash table : index of the entry + 1 in each slot, 0 for empty slots **/
+	private final int[] slots;
+
+	/** Literal values already decoded, by entry index **/
+	private final String[] literals;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param data
+	 *            : see attribute
+	 * @param utf8
+	 *            : see attribute
+	 * @param entries
+	 *            : see attribute
+	 * @param size
+	 *            : see attribute
+	 * @param slots
+	 *            : see attribute
+	 */
+	private PropertyTable(ByteBuffer data, boolean utf8, int[] entries,
+			int size, int[] slots) {
+		this.data = data;
+		this.utf8 = utf8;
+		this.entries = entries;
+		this.size = size;
+		this.slots = slots;
+		this.literals = new String[size];
+	}
+
+	/**
+	 * Builds a table from raw entries. When a key is defined many times, the
+	 * last definition wins (as in {@link java.util.Properties}).
+	 * 
+	 * @param data
+	 *            : file bytes
+	 * @param utf8
+	 *            : are the file bytes UTF-8 encoded
+	 * @param rawEntries
+	 *            : entries descriptions, without the hash
+	 * @param count
+	 *            : number of raw entries
+	 * @return - the table built
+	 */
+	static PropertyTable build(ByteBuffer data, boolean utf8,
+			int[] rawEntries, int count) {
+		int[] slots = new int[slotsCountFor(count)];
+		int mask = slots.length - 1;
+		int[] entries = new int[count * ENTRY_SIZE];
+		int size = 0;
+
+		// decoding buffers for keys comparison
+		char[] keyBuffer = new char[16];
+		char[] otherKeyBuffer = new char[16];
+
+		for (int i = 0; i < count; i++) {
+			int rawOffset = i * ENTRY_SIZE;
+			int keyStart = rawEntries[rawOffset + KEY_START];
+			int keyEnd = rawEntries[rawOffset + KEY_END];
+			if (keyBuffer.length < keyEnd - keyStart) {
+				keyBuffer = new char[keyEnd - keyStart];
+			}
+			int keyLength = decode(data, utf8, keyStart, keyEnd, keyBuffer);
+			int hash = hash(keyBuffer, keyLength);
+
+			// probe for an entry with the same key
+			int slot = spread(hash) & mask;
+			int existingEntry = -1;
+			while (slots[slot] != 0) {
+				int candidate = slots[slot] - 1;
+				int candidateOffset = candidate * ENTRY_SIZE;
+				if (entries[candidateOffset + HASH] == hash) {
+					int otherStart = entries[candidateOffset + KEY_START];
+					int otherEnd = entries[candidateOffset + KEY_END];
+					if (otherKeyBuffer.length < otherEnd - otherStart) {
+						otherKeyBuffer = new char[otherEnd - otherStart];
+					}
+					int otherLength = decode(data, utf8, otherStart, otherEnd,
+							otherKeyBuffer);
+					if (regionEquals(keyBuffer, keyLength, otherKeyBuffer,
+							otherLength)) {
+						existingEntry = candidate;
+						break;
+					}
+				}
+				slot = (slot + 1) & mask;
+			}
+
+			if (existingEntry == -1) {
+				// new key
+				existingEntry = size++;
+				slots[slot] = existingEntry + 1;
+				int offset = existingEntry * ENTRY_SIZE;
+				entries[offset + HASH] = hash;
+				entries[offset + KEY_START] = keyStart;
+				entries[offset + KEY_END] = keyEnd;
+			}
+			// (re)define the value
+			int offset = existingEntry * ENTRY_SIZE;
+			entries[offset + VALUE_START] = rawEntries[rawOffset + VALUE_START];
+			entries[offset + VALUE_END] = rawEntries[rawOffset + VALUE_END];
+		}
+
+		if (size < count) {
+			// some keys were defined many times
+			int[] trimmedEntries = new int[size * ENTRY_SIZE];
+			System.arraycopy(entries, 0, trimmedEntries, 0,
+					trimmedEntries.length);
+			entries = trimmedEntries;
+		}
+		return new PropertyTable(data, utf8, entries, size, slots);
+	}
+
+	/**
+	 * Reads a table written by {@link #writeTo(DataOutputStream)}. The table
+	 * keeps a view on the file bytes in the buffer, that must not be modified
+	 * afterward.
+	 * 
+	 * @param buffer
+	 *            : buffer positioned on the table, positioned after it on
+	 *            return
+	 * @return - the table read
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not hold a valid table
+	 */
+	public static PropertyTable readFrom(ByteBuffer buffer) {
+		try {
+			boolean utf8 = buffer.get() != 0;
+			int dataLength = buffer.getInt();
+			if (dataLength < 0 || dataLength > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid table data length");
+			}
+			ByteBuffer data = buffer.slice();
+			data.limit(dataLength);
+			buffer.position(buffer.position() + dataLength);
+			int size = buffer.getInt();
+			if (size < 0 || size > buffer.remaining() / (4 * ENTRY_SIZE)) {
+				throw new IllegalArgumentException("Invalid table size");
+			}
+			int[] entries = readInts(buffer, size * ENTRY_SIZE);
+			int[] slots = readInts(buffer, buffer.getInt());
+			if (Integer.bitCount(slots.length) != 1) {
+				throw new IllegalArgumentException("Invalid table slots count");
+			}
+			checkRanges(entries, size, dataLength, slots);
+			return new PropertyTable(data, utf8, entries, size, slots);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated table");
+		}
+	}
+
+	/**
+	 * Verifies that the entries of a table read from a binary form stay in
+	 * the file bytes, and that its hash table only holds valid entries and has
+	 * empty slots (so that the lookups end)
+	 * 
+	 * @param entries
+	 *            : entries descriptions
+	 * @param size
+	 *            : number of entries
+	 * @param dataLength
+	 *            : number of file bytes
+	 * @param slots
+	 *            : hash table
+	 * @throws IllegalArgumentException
+	 *             if the table is corrupted
+	 */
+	private static void checkRanges(int[] entries, int size, int dataLength,
+			int[] slots) {
+		for (int entry = 0; entry < size; entry++) {
+			int offset = entry * ENTRY_SIZE;
+			if (!isRegion(entries[offset + KEY_START],
+					entries[offset + KEY_END], dataLength)
+					|| !isRegion(entries[offset + VALUE_START],
+							entries[offset + VALUE_END], dataLength)) {
+				throw new IllegalArgumentException("Invalid table entry");
+			}
+		}
+		boolean emptySlot = false;
+		for (int slot : slots) {
+			if (slot < 0 || slot > size) {
+				throw new IllegalArgumentException("Invalid table slot");
+			}
+			emptySlot |= slot == 0;
+		}
+		if (!emptySlot) {
+			throw new IllegalArgumentException("Full table slots");
+		}
+	}
+
+	/**
+	 * Is a region in the file bytes
+	 * 
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param dataLength
+	 *            : number of file bytes
+	 * @return - true if the region is in the bytes
+	 */
+	private static boolean isRegion(int start, int end, int dataLength) {
+		return start >= 0 && start <= end && end <= dataLength;
+	}
+
+	/**
+	 * Writes this table in a binary form : file bytes, entries and hash table
+	 * 
+	 * @param out
+	 *            : output stream
+	 * @throws IOException
+	 *             if the stream can not be written
+	 */
+	public void writeTo(DataOutputStream out) throws IOException {
+		out.writeBoolean(utf8);
+		int dataLength = data.limit();
+		out.writeInt(dataLength);
+		byte[] chunk = new byte[Math.min(dataLength, 8192)];
+		ByteBuffer source = data.duplicate();
+		source.position(0);
+		while (source.hasRemaining()) {
+			int length = Math.min(chunk.length, source.remaining());
+			source.get(chunk, 0, length);
+			out.write(chunk, 0, length);
+		}
+		out.writeInt(size);
+		writeInts(out, entries, size * ENTRY_SIZE);
+		out.writeInt(slots.length);
+		writeInts(out, slots, slots.length);
+	}
+
+	/**
+	 * Reads integers from a buffer
+	 * 
+	 * @param buffer
+	 *            : buffer, positioned after the integers on return
+	 * @param count
+	 *            : number of integers
+	 * @return - the integers read
+	 * @throws IllegalArgumentException
+	 *             if the count is negative or greater than the integers left
+	 */
+	public static int[] readInts(ByteBuffer buffer, int count) {
+		if (count < 0 || count > buffer.remaining() / 4) {
+			throw new IllegalArgumentException("Invalid integers count");
+		}
+		int[] values = new int[count];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + count * 4);
+		return values;
+	}
+
+	/**
+	 * Writes integers in a stream
+	 * 
+	 * @param out
+	 *            : output stream
+	 * @param values
+	 *            : integers
+	 * @param count
+	 *            : number of integers to write
+	 * @throws IOException
+	 *             if the stream can not be written
+	 */
+	public static void writeInts(DataOutputStream out, int[] values, int count)
+			throws IOException {
+		for (int i = 0; i < count; i++) {
+			out.writeInt(values[i]);
+		}
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @return the number of properties defined in this table
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds an entry
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @return - the index of the entry defining that key or -1 if none
+	 */
+	public int find(String key) {
+		int hash = key.hashCode();
+		int mask = slots.length - 1;
+		int slot = spread(hash) & mask;
+		while (slots[slot] != 0) {
+			int entry = slots[slot] - 1;
+			if (entries[entry * ENTRY_SIZE + HASH] == hash
+					&& keyEquals(entry, key)) {
+				return entry;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the literal value of a property
+	 * 
+	 * @param key
+	 *            : key of the property
+	 * @return - the literal value or null if the table does not define the key
+	 */
+	public String getLiteral(String key) {
+		int entry = find(key);
+		if (entry == -1) {
+			return null;
+		}
+		return getLiteral(entry);
+	}
+
+	/**
+	 * Returns the literal value of an entry, decoding it on first call
+	 * 
+	 * @param entry
+	 *            : entry index
+	 * @return - the literal value
+	 */
+	public String getLiteral(int entry) {
+		String literal = literals[entry];
+		if (literal == null) {
+			// Strings are immutable : a concurrent decoding is harmless
+			int offset = entry * ENTRY_SIZE;
+			literal = decode(entries[offset + VALUE_START], entries[offset
+					+ VALUE_END]);
+			literals[entry] = literal;
+		}
+		return literal;
+	}
+
+	/**
+	 * Returns the key of an entry (decoded at each call)
+	 * 
+	 * @param entry
+	 *            : entry index
+	 * @return - the entry key
+	 */
+	public String getKey(int entry) {
+		int offset = entry * ENTRY_SIZE;
+		return decode(entries[offset + KEY_START], entries[offset + KEY_END]);
+	}
+
+	/**
+	 * Returns the hash of an entry key
+	 * 
+	 * @param entry
+	 *            : entry index
+	 * @return - the key hash, as computed by {@link String#hashCode()}
+	 */
+	public int getKeyHash(int entry) {
+		return entries[entry * ENTRY_SIZE + HASH];
+	}
+
+	/**
+	 * Is the key of an entry equal to the key as parameter
+	 * 
+	 * @param entry
+	 *            : entry index
+	 * @param key
+	 *            : key
+	 * @return - true if the entry defines that key
+	 */
+	public boolean keyEquals(int entry, String key) {
+		int offset = entry * ENTRY_SIZE;
+		int start = entries[offset + KEY_START];
+		int end = entries[offset + KEY_END];
+		if (end - start < key.length()) {
+			// a key can not be shorter than its encoding
+			return false;
+		}
+		// direct comparison for plain ASCII keys
+		int keyLength = key.length();
+		int i = 0;
+		for (int position = start; position < end; position++, i++) {
+			byte b = data.get(position);
+			if (b < 0 || b == '\\') {
+				// escaped or encoded characters : compare decoded keys
+				return key.equals(getKey(entry));
+			}
+			if (i >= keyLength || b != key.charAt(i)) {
+				return false;
+			}
+		}
+		return i == keyLength;
+	}
+
+	/**
+	 * Is the key of an entry equal to the key of an entry of another table
+	 * 
+	 * @param entry
+	 *            : entry index
+	 * @param other
+	 *            : other table
+	 * @param otherEntry
+	 *            : entry index in the other table
+	 * @return - true if both entries define the same key
+	 */
+	public boolean keyEquals(int entry, PropertyTable other, int otherEntry) {
+		int offset = entry * ENTRY_SIZE;
+		int start = entries[offset + KEY_START];
+		int end = entries[offset + KEY_END];
+		int otherOffset = otherEntry * ENTRY_SIZE;
+		int otherStart = other.entries[otherOffset + KEY_START];
+		int otherEnd = other.entries[otherOffset + KEY_END];
+		if (end - start == otherEnd - otherStart) {
+			// direct comparison for plain ASCII keys
+			int position = start;
+			int otherPosition = otherStart;
+			while (position < end) {
+				byte b = data.get(position);
+				if (b < 0 || b == '\\') {
+					break;
+				}
+				if (b != other.data.get(otherPosition)) {
+					return false;
+				}
+				position++;
+				otherPosition++;
+			}
+			if (position == end) {
+				return true;
+			}
+		}
+		// escaped or encoded characters : compare decoded keys
+		return getKey(entry).equals(other.getKey(otherEntry));
+	}
+
+	/**
+	 * Are the table bytes a memory mapped file
+	 * 
+	 * @return - true if the table reads a memory mapped file
+	 */
+	public boolean isMapped() {
+		return data instanceof MappedByteBuffer;
+	}
+
+	/**
+	 * Decodes a bytes region of this table
+	 * 
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the decoded string
+	 */
+	private String decode(int start, int end) {
+		char[] buffer = new char[end - start];
+		int length = decode(data, utf8, start, end, buffer);
+		return new String(buffer, 0, length);
+	}
+
+	/**
+	 * Decodes a bytes region of a property file : processes escape sequences
+	 * and line continuations and decodes characters
+	 * 
+	 * @param data
+	 *            : file bytes
+	 * @param utf8
+	 *            : are the file bytes UTF-8 encoded (ISO-8859-1 otherwise)
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param out
+	 *            : decoded characters buffer (at least end - start long, as
+	 *            no sequence decodes into more characters than its bytes)
+	 * @return - the number of characters decoded
+	 */
+	static int decode(ByteBuffer data, boolean utf8, int start, int end,
+			char[] out) {
+		int length = 0;
+		int position = start;
+		while (position < end) {
+			int b = data.get(position) & 0xFF;
+			if (b == '\\') {
+				position++;
+				if (position >= end) {
+					// trailing back slash : ignored
+					break;
+				}
+				b = data.get(position) & 0xFF;
+				if (b == '\r' || b == '\n') {
+					// line continuation
+					position = PropertyFileParser.skipLineContinuation(data,
+							position, end);
+					continue;
+				}
+				if (b == 'u') {
+					// unicode escape (validated by the parser)
+					int value = 0;
+					for (int i = 1; i <= 4; i++) {
+						value = (value << 4)
+								+ Character.digit((char) data.get(position + i),
+										16);
+					}
+					out[length++] = (char) value;
+					position += 5;
+					continue;
+				}
+				if (b < 0x80) {
+					position++;
+					switch (b) {
+					case 't':
+						out[length++] = '\t';
+						break;
+					case 'n':
+						out[length++] = '\n';
+						break;
+					case 'r':
+						out[length++] = '\r';
+						break;
+					case 'f':
+						out[length++] = '\f';
+						break;
+					default:
+						out[length++] = (char) b;
+					}
+					continue;
+				}
+				// escaped encoded character : decoded below
+			}
+			if (b < 0x80 || !utf8) {
+				out[length++] = (char) b;
+				position++;
+			} else if (b < 0xE0) {
+				out[length++] = (char) (((b & 0x1F) << 6) | (data
+						.get(position + 1) & 0x3F));
+				position += 2;
+			} else if (b < 0xF0) {
+				out[length++] = (char) (((b & 0x0F) << 12)
+						| ((data.get(position + 1) & 0x3F) << 6) | (data
+						.get(position + 2) & 0x3F));
+				position += 3;
+			} else {
+				int codePoint = ((b & 0x07) << 18)
+						| ((data.get(position + 1) & 0x3F) << 12)
+						| ((data.get(position + 2) & 0x3F) << 6)
+						| (data.get(position + 3) & 0x3F);
+				length += Character.toChars(codePoint, out, length);
+				position += 4;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Computes the hash of characters, as {@link String#hashCode()} does
+	 * 
+	 * @param chars
+	 *            : characters
+	 * @param length
+	 *            : number of characters
+	 * @return - the hash
+	 */
+	private static int hash(char[] chars, int length) {
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * Spreads the high bits of a hash on the low ones, that select the slots
+	 * 
+	 * @param hash
+	 *            : key hash
+	 * @return - the spread hash
+	 */
+	static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Are two characters regions equal
+	 * 
+	 * @param first
+	 *            : first region characters
+	 * @param firstLength
+	 *            : first region length
+	 * @param second
+	 *            : second region characters
+	 * @param secondLength
+	 *            : second region length
+	 * @return - true if they are equal
+	 */
+	private static boolean regionEquals(char[] first, int firstLength,
+			char[] second, int secondLength) {
+		if (firstLength != secondLength) {
+			return false;
+		}
+		for (int i = 0; i < firstLength; i++) {
+			if (first[i] != second[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the hash table size for a number of entries (a power of two,
+	 * with a load factor under 0.5)
+	 * 
+	 * @param count
+	 *            : number of entries
+	 * @return - the slots count
+	 */
+	private static int slotsCountFor(int count) {
+		int slotsCount = 2;
+		while (slotsCount < count * 2) {
+			slotsCount <<= 1;
+		}
+		return slotsCount;
+	}
+
+}
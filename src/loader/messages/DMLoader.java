@@ -30,14 +30,17 @@ import loader.error.LoaderErrorAdapter;
 import loader.messages.data.CompoundMessage;
 import loader.messages.data.MessagesReader;
 import loader.messages.error.IDMLoaderErrorListener;
+import container.ResourcesContainer;
 
 /**
  * Default Messages Loader, acting in a way as a resource bundle. Every file you
  * add to it will also have the locale folder prefix (for instance, adding
  * "messages.prop" will result in adding "en_EN/messages.prop" if your current
  * locale is England one). <br>
- * The DMLoader properties are put in the ResourcesContainer. So you may use
- * that singleton to listen property values and edit them.<br>
+ * The DMLoader properties are put in a dedicated ResourcesContainer (see
+ * {@link DMLoader#getContainer()}), so that the application properties files
+ * and the messages files never invalidate each other cache. You may use that
+ * container to listen property values and edit them.<br>
  * See {@link DMLoader#addPropertyFile(String,int)} for more informations about
  * file loading, default locales and folder system.
  * 
@@ -69,8 +72,8 @@ public final class DMLoader extends LoaderErrorAdapter {
 	 */
 	private DMLoader() {
 
-		// build the loader
-		loader = new BasicResourcesLoader();
+		// build the loader, using its own messages container
+		loader = new BasicResourcesLoader(new ResourcesContainer(true));
 
 		// install file loader delegate
 		loaderDelegate = new FileLoaderDelegate();
@@ -274,6 +277,15 @@ public final class DMLoader extends LoaderErrorAdapter {
 		return getInstance().loader.getClassLoader();
 	}
 
+	/**
+	 * Delegate method.
+	 * 
+	 * @see loader.BasicResourcesLoader#getContainer()
+	 */
+	public static ResourcesContainer getContainer() {
+		return getInstance().loader.getContainer();
+	}
+
 	/**
 	 * Delegate method.
 	 * 
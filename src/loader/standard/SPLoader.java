@@ -20,13 +20,17 @@ package loader.standard;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.io.File;
 import java.math.BigDecimal;
+import java.util.List;
 
 import javax.swing.ImageIcon;
 
 import loader.BasicResourcesLoader;
+import loader.PropertyHandle;
 import loader.PropertyReader;
 import loader.error.ILoaderErrorListener;
+import loader.standard.readers.AsyncImageIconReader;
 import loader.standard.readers.FontReader;
 import loader.standard.readers.ImageIconReader;
 import loader.standard.readers.direct.conversion.BigDecimalReader;
@@ -39,6 +43,7 @@ import loader.standard.readers.direct.conversion.IDirectValueConverter;
 import loader.standard.readers.direct.conversion.IntegerReader;
 import loader.standard.readers.direct.conversion.LongReader;
 import loader.standard.readers.direct.conversion.StringReader;
+import container.PrimitiveProperty;
 import container.Property;
 import container.ResourcesContainer;
 
@@ -120,6 +125,54 @@ public class SPLoader {
 		getLoaderInstance().addPropertyFile(fileName, index);
 	}
 
+	/**
+	 * Adds a property file to the loader instance, without reading it
+	 * 
+	 * @param fileName
+	 *            : name of the property file to add
+	 * @see BasicResourcesLoader#addLazyPropertyFile(String)
+	 */
+	public static void addLazyPropertyFile(String fileName) {
+		getLoaderInstance().addLazyPropertyFile(fileName);
+	}
+
+	/**
+	 * Adds a property file to the loader instance, without reading it
+	 * 
+	 * @param fileName
+	 *            : file to add
+	 * @param index
+	 *            : index of the file
+	 * @see BasicResourcesLoader#addLazyPropertyFile(String, int)
+	 */
+	public static void addLazyPropertyFile(String fileName, int index) {
+		getLoaderInstance().addLazyPropertyFile(fileName, index);
+	}
+
+	/**
+	 * Adds property files to the loader instance, as most important ones
+	 * 
+	 * @param fileNames
+	 *            : names of the property files to add, by ascending priority
+	 * @see BasicResourcesLoader#addPropertyFiles(List)
+	 */
+	public static void addPropertyFiles(List<String> fileNames) {
+		getLoaderInstance().addPropertyFiles(fileNames);
+	}
+
+	/**
+	 * Adds property files to the loader instance
+	 * 
+	 * @param fileNames
+	 *            : names of the property files to add, by ascending priority
+	 * @param index
+	 *            : index of the first file
+	 * @see BasicResourcesLoader#addPropertyFiles(List, int)
+	 */
+	public static void addPropertyFiles(List<String> fileNames, int index) {
+		getLoaderInstance().addPropertyFiles(fileNames, index);
+	}
+
 	/**
 	 * Exports file content
 	 * 
@@ -131,6 +184,111 @@ public class SPLoader {
 		getLoaderInstance().exportFileContent(fileName);
 	}
 
+	/**
+	 * Reloads a property file of the loader instance
+	 * 
+	 * @param fileName
+	 *            : name of the file to reload
+	 * @return - true if the file was reloaded
+	 * @see loader.BasicResourcesLoader#reloadPropertyFile(java.lang.String)
+	 */
+	public static boolean reloadPropertyFile(String fileName) {
+		return getLoaderInstance().reloadPropertyFile(fileName);
+	}
+
+	/**
+	 * Starts watching the property files of the loader instance
+	 * 
+	 * @param period
+	 *            : polling period, in milliseconds
+	 * @see loader.BasicResourcesLoader#startWatching(long)
+	 */
+	public static void startWatching(long period) {
+		getLoaderInstance().startWatching(period);
+	}
+
+	/**
+	 * Stops watching the property files of the loader instance
+	 * 
+	 * @see loader.BasicResourcesLoader#stopWatching()
+	 */
+	public static void stopWatching() {
+		getLoaderInstance().stopWatching();
+	}
+
+	/**
+	 * Compiles the property files of the loader instance in a snapshot
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file
+	 * @see loader.BasicResourcesLoader#compileSnapshot(java.io.File)
+	 */
+	public static void compileSnapshot(File snapshotFile) {
+		getLoaderInstance().compileSnapshot(snapshotFile);
+	}
+
+	/**
+	 * Loads a snapshot in the loader instance
+	 * 
+	 * @param snapshotFile
+	 *            : snapshot file
+	 * @return - true if the snapshot was loaded, false if it is stale
+	 * @see loader.BasicResourcesLoader#loadSnapshot(java.io.File)
+	 */
+	public static boolean loadSnapshot(File snapshotFile) {
+		return getLoaderInstance().loadSnapshot(snapshotFile);
+	}
+
+	/**
+	 * Sets the size of the loader instance interning cache
+	 * 
+	 * @param size
+	 *            : maximum number of values shared between keys, 0 to disable
+	 *            the interning
+	 * @see loader.BasicResourcesLoader#setInterningCacheSize(int)
+	 */
+	public static void setInterningCacheSize(int size) {
+		getLoaderInstance().setInterningCacheSize(size);
+	}
+
+	/**
+	 * Bounds the memory of the properties read by the loader instance, weighed
+	 * in approximate bytes (see {@link StandardPropertyWeigher})
+	 * 
+	 * @param maximumWeight
+	 *            : maximum total weight, in bytes, 0 or less to remove the
+	 *            bound
+	 * @see container.ResourcesContainer#setMemoryBudget(long,
+	 *      container.PropertyWeigher)
+	 */
+	public static void setMemoryBudget(long maximumWeight) {
+		getLoaderInstance().getContainer().setMemoryBudget(maximumWeight,
+				StandardPropertyWeigher.getInstance());
+	}
+
+	/**
+	 * Sets the maximum number of keys not found remembered by the loader
+	 * instance
+	 * 
+	 * @param size
+	 *            : maximum number of keys, 0 to never remember them
+	 * @see container.ResourcesContainer#setUnfoundCacheSize(int)
+	 */
+	public static void setUnfoundCacheSize(int size) {
+		getLoaderInstance().getContainer().setUnfoundCacheSize(size);
+	}
+
+	/**
+	 * Sets the time a key not found is remembered by the loader instance
+	 * 
+	 * @param timeToLive
+	 *            : time to live, in milliseconds, 0 or less for ever
+	 * @see container.ResourcesContainer#setUnfoundTimeToLive(long)
+	 */
+	public static void setUnfoundTimeToLive(long timeToLive) {
+		getLoaderInstance().getContainer().setUnfoundTimeToLive(timeToLive);
+	}
+
 	/**
 	 * Is the file as parameter loaded
 	 * 
@@ -170,6 +328,65 @@ public class SPLoader {
 		return getLoaderInstance().getProperty(key, reader);
 	}
 
+	/**
+	 * Method to get a property that may legitimately be absent through the
+	 * loader instance (no error is notified when it is not found)
+	 * 
+	 * @param T
+	 *            : type of value awaited
+	 * @param key
+	 *            : key of the property loaded
+	 * @param reader
+	 *            : reader for the property
+	 * @return - the property loaded or null if not found
+	 * @see loader.BasicResourcesLoader#findProperty(java.lang.String,
+	 *      loader.PropertyReader)
+	 */
+	public static <T> T findProperty(String key, PropertyReader<T> reader) {
+		return getLoaderInstance().findProperty(key, reader);
+	}
+
+	/**
+	 * Method to get a property that may legitimately be absent through the
+	 * loader instance, or a default value (no error is notified when it is not
+	 * found)
+	 * 
+	 * @param T
+	 *            : type of value awaited
+	 * @param key
+	 *            : key of the property loaded
+	 * @param reader
+	 *            : reader for the property
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - the property loaded or the default value if not found
+	 * @see loader.BasicResourcesLoader#getPropertyOrDefault(java.lang.String,
+	 *      loader.PropertyReader, java.lang.Object)
+	 */
+	public static <T> T getPropertyOrDefault(String key,
+			PropertyReader<T> reader, T defaultValue) {
+		return getLoaderInstance().getPropertyOrDefault(key, reader,
+				defaultValue);
+	}
+
+	/**
+	 * Returns the handle of a property in the loader instance
+	 * 
+	 * @param T
+	 *            : type of value awaited
+	 * @param key
+	 *            : key of the property
+	 * @param reader
+	 *            : reader for the property
+	 * @return - the property handle
+	 * @see loader.BasicResourcesLoader#getHandle(java.lang.String,
+	 *      loader.PropertyReader)
+	 */
+	public static <T> PropertyHandle<T> getHandle(String key,
+			PropertyReader<T> reader) {
+		return getLoaderInstance().getHandle(key, reader);
+	}
+
 	/**
 	 * API extension : set a property from its new value representation and the
 	 * corresponding reader. Think about catching parse exceptions if you can
@@ -204,7 +421,7 @@ public class SPLoader {
 		Property<T> newPropertyValue = null;
 		if (newValueRepresentation != null) {
 			// read the property only if it is not null
-			newPropertyValue = new Property<T>(newValueReader
+			newPropertyValue = PrimitiveProperty.create(newValueReader
 					.readProperty(newValueRepresentation),
 					newValueRepresentation);
 		}
@@ -239,8 +456,8 @@ public class SPLoader {
 			throw new IllegalArgumentException(
 					"The property reader can not be null");
 		}
-		ResourcesContainer.addPropertyI(key, new Property<T>(newValue,
-				newValueConverter.convertToProperty(newValue)));
+		ResourcesContainer.addPropertyI(key, PrimitiveProperty.create(
+				newValue, newValueConverter.convertToProperty(newValue)));
 	}
 
 	/**
@@ -331,6 +548,19 @@ public class SPLoader {
 		return getProperty(key, ImageIconReader.getInstance());
 	}
 
+	/**
+	 * Icon property getter (property getter closure) : the icon is returned
+	 * before its image is decoded, and the listeners of the loader container
+	 * are notified once it is (see {@link AsyncImageIconReader})
+	 * 
+	 * @param key
+	 *            : property key
+	 * @return - property value
+	 */
+	public static ImageIcon getAsyncIcon(String key) {
+		return getProperty(key, AsyncImageIconReader.getInstance());
+	}
+
 	/**
 	 * Integer property getter (property getter closure)
 	 * 
@@ -353,6 +583,91 @@ public class SPLoader {
 		return getProperty(key, LongReader.getInstance());
 	}
 
+	/**
+	 * Primitive integer property getter, that does not allocate once the
+	 * property was resolved (property getter closure)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - property value or the default value if not found
+	 * @see loader.BasicResourcesLoader#getIntProperty(java.lang.String,
+	 *      loader.IntPropertyReader, int)
+	 */
+	public static int getInt(String key, int defaultValue) {
+		return getLoaderInstance().getIntProperty(key,
+				IntegerReader.getInstance(), defaultValue);
+	}
+
+	/**
+	 * Primitive long property getter, that does not allocate once the
+	 * property was resolved (property getter closure)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - property value or the default value if not found
+	 * @see loader.BasicResourcesLoader#getLongProperty(java.lang.String,
+	 *      loader.LongPropertyReader, long)
+	 */
+	public static long getLong(String key, long defaultValue) {
+		return getLoaderInstance().getLongProperty(key,
+				LongReader.getInstance(), defaultValue);
+	}
+
+	/**
+	 * Primitive float property getter, that does not allocate once the
+	 * property was resolved (property getter closure)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - property value or the default value if not found
+	 * @see loader.BasicResourcesLoader#getFloatProperty(java.lang.String,
+	 *      loader.FloatPropertyReader, float)
+	 */
+	public static float getFloat(String key, float defaultValue) {
+		return getLoaderInstance().getFloatProperty(key,
+				FloatReader.getInstance(), defaultValue);
+	}
+
+	/**
+	 * Primitive double property getter, that does not allocate once the
+	 * property was resolved (property getter closure)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - property value or the default value if not found
+	 * @see loader.BasicResourcesLoader#getDoubleProperty(java.lang.String,
+	 *      loader.DoublePropertyReader, double)
+	 */
+	public static double getDouble(String key, double defaultValue) {
+		return getLoaderInstance().getDoubleProperty(key,
+				DoubleReader.getInstance(), defaultValue);
+	}
+
+	/**
+	 * Primitive boolean property getter, that does not allocate once the
+	 * property was resolved (property getter closure)
+	 * 
+	 * @param key
+	 *            : property key
+	 * @param defaultValue
+	 *            : value returned when the property is not found
+	 * @return - property value or the default value if not found
+	 * @see loader.BasicResourcesLoader#getBooleanProperty(java.lang.String,
+	 *      loader.BooleanPropertyReader, boolean)
+	 */
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		return getLoaderInstance().getBooleanProperty(key,
+				BooleanReader.getInstance(), defaultValue);
+	}
+
 	/**
 	 * String property getter (property getter closure)
 	 * 
@@ -85,12 +85,24 @@ public final class SPLoaderMessages {
 	/** Font reader error : invalid font file **/
 	public static final String FONT_READER_INVALID_FONT_FILE_ERROR = "standard.reader.font.invalid.font.file";
 
+	/** Font reader error : invalid size **/
+	public static final String FONT_READER_INVALID_SIZE_ERROR = "standard.reader.font.invalid.size";
+
+	/** Font reader error : invalid style **/
+	public static final String FONT_READER_INVALID_STYLE_ERROR = "standard.reader.font.invalid.style";
+
 	/** Image reader error : invalid path **/
 	public static final String IMAGE_READER_PATH_ERROR = "standard.reader.image.invalid.path";
 
 	/** Image reader error : invalid icon file **/
 	public static final String IMAGE_READER_INVALID_IMAGE_FILE = "standard.reader.image.invalid.image.file";
 
+	/** Image reader error : invalid atlas region **/
+	public static final String IMAGE_READER_INVALID_REGION = "standard.reader.image.invalid.region";
+
+	/** Image reader error : atlas region out of the atlas image **/
+	public static final String IMAGE_READER_REGION_OUT_OF_BOUNDS = "standard.reader.image.region.out.of.bounds";
+
 	/**
 	 * Adds the default SPLoader messages
 	 */
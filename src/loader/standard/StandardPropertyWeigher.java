@@ -0,0 +1,110 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.standard;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+
+import javax.swing.ImageIcon;
+
+import container.PropertyWeigher;
+
+/**
+ * Weigher of the standard property values, in approximate bytes : the image
+ * icons weigh their image pixels, the strings their characters and the other
+ * values a small object. The icons cut in an atlas image and the fonts are
+ * shared by their readers caches (evicting them frees little memory) : they
+ * weigh a small object too. An icon still decoding weighs its placeholder.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public class StandardPropertyWeigher implements PropertyWeigher {
+
+	/** Weight of a small object **/
+	private static final long __OBJECT_WEIGHT = 32;
+
+	/** Weight of an image pixel, when the image data is not known **/
+	private static final long __PIXEL_WEIGHT = 4;
+
+	/** Singleton instance **/
+	private static StandardPropertyWeigher __instance;
+
+	/**
+	 * Constructor
+	 */
+	private StandardPropertyWeigher() {
+		// forbids external instance
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public long weigh(String key, Object value) {
+		if (value instanceof ImageIcon) {
+			return __OBJECT_WEIGHT + weighImage(((ImageIcon) value).getImage());
+		}
+		if (value instanceof CharSequence) {
+			return __OBJECT_WEIGHT + 2L * ((CharSequence) value).length();
+		}
+		return __OBJECT_WEIGHT;
+	}
+
+	/**
+	 * Returns the weight of an image data
+	 * 
+	 * @param image
+	 *            : image (may be null)
+	 * @return - the image data size, in bytes
+	 */
+	private static long weighImage(Image image) {
+		if (image instanceof BufferedImage) {
+			WritableRaster raster = ((BufferedImage) image).getRaster();
+			if (raster.getParent() != null) {
+				// view of an atlas image, held by the reader
+				return 0;
+			}
+			DataBuffer data = raster.getDataBuffer();
+			return (long) data.getSize() * data.getNumBanks()
+					* DataBuffer.getDataTypeSize(data.getDataType()) / 8;
+		}
+		if (image != null) {
+			long width = Math.max(0, image.getWidth(null));
+			long height = Math.max(0, image.getHeight(null));
+			return width * height * __PIXEL_WEIGHT;
+		}
+		return 0;
+	}
+
+	/**
+	 * Singleton getter
+	 * 
+	 * @return - the singleton instance
+	 */
+	public static StandardPropertyWeigher getInstance() {
+		if (__instance == null) {
+			__instance = new StandardPropertyWeigher();
+		}
+		return __instance;
+	}
+
+}
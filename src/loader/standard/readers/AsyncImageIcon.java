@@ -0,0 +1,136 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.standard.readers;
+
+import java.awt.Image;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.ImageIcon;
+
+import loader.AsynchronousValue;
+import loader.ICompletionListener;
+
+/**
+ * Image icon read by the {@link AsyncImageIconReader} : it shows a placeholder
+ * image until its real image is decoded in background. The real image is set
+ * in the AWT event dispatching thread, where the completion listeners are
+ * then called. If the image can not be decoded, the icon keeps its
+ * placeholder and the listeners are notified of the failure.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public class AsyncImageIcon extends ImageIcon implements AsynchronousValue {
+
+	/** Serial version UID **/
+	private static final long serialVersionUID = 1L;
+
+	/** Listeners waiting for the completion (guarded by this icon) **/
+	private transient List<ICompletionListener> completionListeners;
+
+	/** Was the real image set **/
+	private volatile boolean complete;
+
+	/**
+	 * Error message if the real image could not be decoded (guarded by this
+	 * icon)
+	 **/
+	private String errorMessage;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param placeholder
+	 *            : image shown until the real image is set
+	 * @param description
+	 *            : icon description
+	 */
+	AsyncImageIcon(Image placeholder, String description) {
+		super(placeholder, description);
+		completionListeners = new ArrayList<ICompletionListener>();
+	}
+
+	/**
+	 * Sets the real image and notifies the completion listeners
+	 * 
+	 * @param image
+	 *            : real image (fully decoded)
+	 */
+	void complete(Image image) {
+		setImage(image);
+		List<ICompletionListener> listeners;
+		synchronized (this) {
+			complete = true;
+			listeners = completionListeners;
+			completionListeners = null;
+		}
+		for (ICompletionListener listener : listeners) {
+			listener.notifyCompleted();
+		}
+	}
+
+	/**
+	 * Keeps the placeholder image and notifies the completion listeners of
+	 * the failure
+	 * 
+	 * @param message
+	 *            : error message
+	 */
+	void fail(String message) {
+		List<ICompletionListener> listeners;
+		synchronized (this) {
+			errorMessage = message;
+			listeners = completionListeners;
+			completionListeners = null;
+		}
+		for (ICompletionListener listener : listeners) {
+			listener.notifyFailed(message);
+		}
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public void addCompletionListener(ICompletionListener listener) {
+		String failure;
+		synchronized (this) {
+			if (completionListeners != null) {
+				completionListeners.add(listener);
+				return;
+			}
+			failure = errorMessage;
+		}
+		if (failure == null) {
+			listener.notifyCompleted();
+		} else {
+			listener.notifyFailed(failure);
+		}
+	}
+
+}
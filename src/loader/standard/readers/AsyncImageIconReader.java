@@ -0,0 +1,328 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.standard.readers;
+
+import java.awt.EventQueue;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import loader.PropertyReader;
+import loader.messages.DMLoader;
+import loader.standard.SPLoaderMessages;
+
+/**
+ * Image icon reader that does not wait for the image decoding : it returns at
+ * once an {@link AsyncImageIcon} showing a transparent placeholder image, and
+ * decodes the image file on a bounded pool of background threads. The icon
+ * image is then set in the AWT event dispatching thread, and the listeners of
+ * the loader container are notified of the property change (see
+ * {@link loader.AsynchronousValue}). A missing file is still reported at once;
+ * an icon whose file can not be decoded keeps its placeholder and the failure
+ * is reported to the loader error listeners. Only the first frame of animated
+ * images is read.<br>
+ * Atlas regions ([path]#[x],[y],[width],[height], see {@link ImageIconReader})
+ * are supported too : the atlas images cache is shared with the
+ * {@link ImageIconReader}, so that an atlas already decoded gives its icons at
+ * once. The icons of a file being decoded wait for that decoding instead of
+ * decoding the file again.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public class AsyncImageIconReader implements PropertyReader<ImageIcon> {
+
+	/** Executor decoding the images, in daemon threads **/
+	private static final ExecutorService DECODING_EXECUTOR = Executors
+			.newFixedThreadPool(Math.min(4, Runtime.getRuntime()
+					.availableProcessors()), new ThreadFactory() {
+				/**
+				 * {@inherit}
+				 */
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Image icons decoding");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/** Image shown until the real image is decoded **/
+	private static final Image PLACEHOLDER = new BufferedImage(1, 1,
+			BufferedImage.TYPE_INT_ARGB);
+
+	/** Separator of the atlas path and region **/
+	private static final char __REGION_SEPARATOR = '#';
+
+	/** Singleton instance **/
+	private static AsyncImageIconReader __instance;
+
+	/** Decodings in progress, by image file URL **/
+	private final ConcurrentMap<String, Decoding> decodings;
+
+	/**
+	 * Constructor
+	 */
+	private AsyncImageIconReader() {
+		// forbids external instance
+		// ensure reader messages are loaded
+		SPLoaderMessages.addDefaultMessages();
+		decodings = new ConcurrentHashMap<String, Decoding>();
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ImageIcon readProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		// a - find the image file and the atlas region if any (a missing file
+		// or an invalid region are reported at once)
+		String filePath = propertyRepresentation;
+		int[] region = null;
+		int regionStart = propertyRepresentation
+				.lastIndexOf(__REGION_SEPARATOR);
+		if (regionStart >= 0) {
+			region = ImageIconReader.parseRegion(propertyRepresentation,
+					regionStart);
+			if (region != null) {
+				ImageIconReader.checkRegion(propertyRepresentation,
+						regionStart, region);
+				filePath = propertyRepresentation.substring(0, regionStart);
+			}
+		}
+		URL imageURL = ImageIconReader.getIconURL(filePath);
+
+		// b - an atlas already decoded gives its icon at once
+		if (region != null) {
+			BufferedImage atlas = ImageIconReader.getInstance().getAtlas(
+					imageURL);
+			if (atlas != null) {
+				return new ImageIcon(ImageIconReader.getRegionImage(atlas,
+						propertyRepresentation, region), propertyRepresentation);
+			}
+		}
+
+		// c - wait for the decoding of the file, started if it is not in
+		// progress yet
+		AsyncImageIcon imageIcon = new AsyncImageIcon(PLACEHOLDER,
+				propertyRepresentation);
+		String imageKey = imageURL.toExternalForm();
+		Decoding decoding = decodings.get(imageKey);
+		if (decoding == null) {
+			Decoding newDecoding = new Decoding(imageKey, imageURL);
+			decoding = decodings.putIfAbsent(imageKey, newDecoding);
+			if (decoding == null) {
+				decoding = newDecoding;
+				DECODING_EXECUTOR.execute(newDecoding);
+			}
+		}
+		decoding.addIcon(imageIcon, region);
+		return imageIcon;
+	}
+
+	/**
+	 * Sets the decoded image in icons, from the AWT event dispatching thread
+	 * 
+	 * @param icons
+	 *            : icons to complete
+	 * @param regions
+	 *            : atlas region of each icon, null for a whole image icon
+	 * @param image
+	 *            : image decoded, null if the file could not be decoded
+	 * @param imageURL
+	 *            : image file URL
+	 */
+	private static void completeIcons(final List<AsyncImageIcon> icons,
+			final List<int[]> regions, final BufferedImage image,
+			final URL imageURL) {
+		EventQueue.invokeLater(new Runnable() {
+			/**
+			 * {@inherit}
+			 */
+			@Override
+			public void run() {
+				for (int i = 0; i < icons.size(); i++) {
+					AsyncImageIcon imageIcon = icons.get(i);
+					int[] region = regions.get(i);
+					if (image == null) {
+						imageIcon.fail(DMLoader.getMessage(
+								SPLoaderMessages.IMAGE_READER_INVALID_IMAGE_FILE,
+								imageURL.toString()));
+					} else if (region == null) {
+						imageIcon.complete(image);
+					} else {
+						Image regionImage;
+						try {
+							regionImage = ImageIconReader.getRegionImage(
+									image, imageIcon.getDescription(), region);
+						} catch (IllegalArgumentException e) {
+							imageIcon.fail(e.getMessage());
+							continue;
+						}
+						imageIcon.complete(regionImage);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Decodes an image file
+	 * 
+	 * @param imageURL
+	 *            : image file URL
+	 * @return - the decoded image or null if it can not be read
+	 */
+	private static BufferedImage readImage(URL imageURL) {
+		try {
+			return ImageIO.read(imageURL);
+		} catch (IOException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// decoders may also fail on malformed files this way
+			return null;
+		}
+	}
+
+	/**
+	 * Decoding of an image file, shared by all the icons read from that file
+	 * while it is in progress
+	 */
+	private class Decoding implements Runnable {
+
+		/** Key of the decoding **/
+		private final String imageKey;
+
+		/** Image file URL **/
+		private final URL imageURL;
+
+		/**
+		 * Icons waiting for the image (guarded by this decoding, null once
+		 * decoded)
+		 **/
+		private List<AsyncImageIcon> icons;
+
+		/** Atlas region of each waiting icon (guarded by this decoding) **/
+		private List<int[]> regions;
+
+		/** Image decoded (guarded by this decoding) **/
+		private BufferedImage image;
+
+		/**
+		 * Constructor
+		 * 
+		 * @param imageKey
+		 *            : key of the decoding
+		 * @param imageURL
+		 *            : image file URL
+		 */
+		Decoding(String imageKey, URL imageURL) {
+			this.imageKey = imageKey;
+			this.imageURL = imageURL;
+			icons = new ArrayList<AsyncImageIcon>();
+			regions = new ArrayList<int[]>();
+		}
+
+		/**
+		 * Adds an icon to complete with the decoded image. An icon added once
+		 * the image is decoded is completed at once.
+		 * 
+		 * @param imageIcon
+		 *            : icon to complete
+		 * @param region
+		 *            : atlas region of the icon, null for a whole image icon
+		 */
+		void addIcon(AsyncImageIcon imageIcon, int[] region) {
+			BufferedImage decodedImage;
+			synchronized (this) {
+				if (icons != null) {
+					icons.add(imageIcon);
+					regions.add(region);
+					return;
+				}
+				decodedImage = image;
+			}
+			if (decodedImage != null && region != null) {
+				decodedImage = ImageIconReader.getInstance().cacheAtlas(
+						imageURL, decodedImage);
+			}
+			List<AsyncImageIcon> lateIcons = new ArrayList<AsyncImageIcon>(1);
+			lateIcons.add(imageIcon);
+			List<int[]> lateRegions = new ArrayList<int[]>(1);
+			lateRegions.add(region);
+			completeIcons(lateIcons, lateRegions, decodedImage, imageURL);
+		}
+
+		/**
+		 * {@inherit}
+		 */
+		@Override
+		public void run() {
+			BufferedImage decodedImage = readImage(imageURL);
+			List<AsyncImageIcon> decodedIcons;
+			List<int[]> decodedRegions;
+			synchronized (this) {
+				image = decodedImage;
+				decodedIcons = icons;
+				decodedRegions = regions;
+				icons = null;
+				regions = null;
+			}
+			// an atlas image is kept in the cache shared with the image icon
+			// reader
+			if (decodedImage != null) {
+				for (int[] region : decodedRegions) {
+					if (region != null) {
+						decodedImage = ImageIconReader.getInstance()
+								.cacheAtlas(imageURL, decodedImage);
+						break;
+					}
+				}
+			}
+			decodings.remove(imageKey, this);
+			completeIcons(decodedIcons, decodedRegions, decodedImage, imageURL);
+		}
+
+	}
+
+	/**
+	 * Singleton getter
+	 * 
+	 * @return - the singleton instance
+	 */
+	public static AsyncImageIconReader getInstance() {
+		if (__instance == null) {
+			__instance = new AsyncImageIconReader();
+		}
+		return __instance;
+	}
+
+}
@@ -25,23 +25,44 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import loader.PropertyReader;
+import loader.ImmutablePropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
 /**
  * Default reader for font properties. The font file can be specified as
- * relative to classpath or to system file path.
+ * relative to classpath or to system file path. It can be followed by the font
+ * size and style : [path]{,[size]{,[style]}} where the style is plain, bold,
+ * italic or bolditalic (for instance "fonts/title.ttf,14,bold"). Without size,
+ * the font has the size of {@link Font#createFont(int, InputStream)} fonts
+ * (1).<br>
+ * Each font file is read once : the base fonts are cached by file, and the
+ * fonts derived from them by file, size and style.
  * 
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class FontReader implements PropertyReader<Font> {
+public class FontReader implements ImmutablePropertyReader<Font> {
+
+	/** Separator of the path, size and style **/
+	private static final char __SEPARATOR = ',';
+
+	/** Styles names, by style value **/
+	private static final String[] __STYLES = { "plain", "bold", "italic",
+			"bolditalic" };
 
 	/** Singleton instance **/
 	private static FontReader __instance;
 
+	/** Base fonts read, by font file URL **/
+	private final ConcurrentMap<String, Font> baseFonts;
+
+	/** Derived fonts, by font file URL, size and style **/
+	private final ConcurrentMap<String, Font> derivedFonts;
+
 	/**
 	 * Constructor
 	 */
@@ -49,6 +70,8 @@ public class FontReader implements PropertyReader<Font> {
 		// forbids external instance
 		// ensure reader messages are loaded
 		SPLoaderMessages.addDefaultMessages();
+		baseFonts = new ConcurrentHashMap<String, Font>();
+		derivedFonts = new ConcurrentHashMap<String, Font>();
 	}
 
 	/**
@@ -57,8 +80,119 @@ public class FontReader implements PropertyReader<Font> {
 	@Override
 	public Font readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
-		String filePath = propertyRepresentation.trim();
-		URL fontURL = ClassLoader.getSystemClassLoader().getResource(filePath);
+		// a - split path, size and style
+		String filePath = propertyRepresentation;
+		String sizeString = null;
+		String styleString = null;
+		int sizeStart = propertyRepresentation.indexOf(__SEPARATOR);
+		if (sizeStart >= 0) {
+			filePath = propertyRepresentation.substring(0, sizeStart);
+			int styleStart = propertyRepresentation.indexOf(__SEPARATOR,
+					sizeStart + 1);
+			if (styleStart >= 0) {
+				sizeString = propertyRepresentation.substring(sizeStart + 1,
+						styleStart).trim();
+				styleString = propertyRepresentation.substring(styleStart + 1)
+						.trim();
+			} else {
+				sizeString = propertyRepresentation.substring(sizeStart + 1)
+						.trim();
+			}
+		}
+		float size = 0;
+		if (sizeString != null) {
+			try {
+				size = Float.parseFloat(sizeString);
+			} catch (NumberFormatException e) {
+				size = -1;
+			}
+			if (!(size > 0)) {
+				throw new IllegalArgumentException(DMLoader.getMessage(
+						SPLoaderMessages.FONT_READER_INVALID_SIZE_ERROR,
+						propertyRepresentation, sizeString));
+			}
+		}
+		int style = Font.PLAIN;
+		if (styleString != null) {
+			style = getStyle(styleString);
+			if (style < 0) {
+				throw new IllegalArgumentException(DMLoader.getMessage(
+						SPLoaderMessages.FONT_READER_INVALID_STYLE_ERROR,
+						propertyRepresentation, styleString));
+			}
+		}
+
+		// b - get the base font, read once by file
+		URL fontURL = getFontURL(filePath.trim(), propertyRepresentation);
+		String fileKey = fontURL.toExternalForm();
+		Font baseFont = baseFonts.get(fileKey);
+		if (baseFont == null) {
+			baseFont = readFont(fontURL);
+			Font knownFont = baseFonts.putIfAbsent(fileKey, baseFont);
+			if (knownFont != null) {
+				baseFont = knownFont;
+			}
+		}
+		if (sizeString == null) {
+			return baseFont;
+		}
+
+		// c - derive it once by size and style
+		String derivedKey = fileKey + __SEPARATOR + size + __SEPARATOR + style;
+		Font derivedFont = derivedFonts.get(derivedKey);
+		if (derivedFont == null) {
+			derivedFont = baseFont.deriveFont(style, size);
+			Font knownFont = derivedFonts.putIfAbsent(derivedKey, derivedFont);
+			if (knownFont != null) {
+				derivedFont = knownFont;
+			}
+		}
+		return derivedFont;
+	}
+
+	/**
+	 * Empties the fonts cache (the font files will be read again)
+	 */
+	public void clearCache() {
+		baseFonts.clear();
+		derivedFonts.clear();
+	}
+
+	/**
+	 * Returns the style value for its name
+	 * 
+	 * @param styleString
+	 *            : style name
+	 * @return - the style value or -1 if the name is unknown
+	 */
+	private static int getStyle(String styleString) {
+		for (int style = 0; style < __STYLES.length; style++) {
+			if (__STYLES[style].equalsIgnoreCase(styleString)) {
+				return style;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the URL of a font file, searched in the class path (through the
+	 * context class loader) then in the file system
+	 * 
+	 * @param filePath
+	 *            : font file path
+	 * @param propertyRepresentation
+	 *            : property representation, for the error messages
+	 * @return - the font file URL
+	 * @throws IllegalArgumentException
+	 *             if the file is not found
+	 */
+	private URL getFontURL(String filePath, String propertyRepresentation) {
+		ClassLoader classLoader = Thread.currentThread()
+				.getContextClassLoader();
+		if (classLoader == null) {
+			classLoader = ClassLoader.getSystemClassLoader();
+		}
+		URL fontURL = classLoader.getResource(filePath);
 		if (fontURL == null) {
 			// the font file is not in class path, is it in absolute path?
 			try {
@@ -76,11 +210,23 @@ public class FontReader implements PropertyReader<Font> {
 						propertyRepresentation));
 			}
 		}
+		return fontURL;
+	}
 
+	/**
+	 * Reads a font file, as a true type font or as a type 1 font
+	 * 
+	 * @param fontURL
+	 *            : font file URL
+	 * @return - the font read
+	 * @throws IllegalArgumentException
+	 *             if the file can not be read or is not a valid font file
+	 */
+	private Font readFont(URL fontURL) {
 		Font loadedFont = readFont(fontURL, Font.TRUETYPE_FONT);
 		if (loadedFont == null) {
 			// is it a type 1 font?
-			readFont(fontURL, Font.TYPE1_FONT);
+			loadedFont = readFont(fontURL, Font.TYPE1_FONT);
 		}
 
 		if (loadedFont == null) {
@@ -89,8 +235,6 @@ public class FontReader implements PropertyReader<Font> {
 					SPLoaderMessages.FONT_READER_INVALID_FONT_FILE_ERROR,
 					fontURL.toString()));
 		}
-
-		// build a property font that can be exported in property file later on
 		return loadedFont;
 	}
 
@@ -109,25 +253,19 @@ public class FontReader implements PropertyReader<Font> {
 			fontStream = fontURL.openStream();
 			return Font.createFont(type, fontStream);
 		} catch (IOException e1) {
-			try {
-				if (fontStream != null) {
-					fontStream.close();
-				}
-			} catch (Exception e3) {
-				// ignore this exception
-			}
 			throw new IllegalArgumentException(DMLoader.getMessage(
 					SPLoaderMessages.FONT_READER_FILE_ACCES_ERROR, fontURL
 							.toString()));
 		} catch (FontFormatException e2) {
+			return null;
+		} finally {
 			try {
 				if (fontStream != null) {
 					fontStream.close();
 				}
-			} catch (Exception e3) {
+			} catch (IOException e3) {
 				// ignore this exception
 			}
-			return null;
 		}
 	}
 
@@ -19,28 +19,50 @@
 package loader.standard.readers;
 
 import java.awt.MediaTracker;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 
 import loader.PropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
+import loader.standard.readers.direct.conversion.SequenceParser;
 
 /**
  * Default reader for image icon properties. The image icon file can be
- * specified as relative to classpath or to system file path.
+ * specified as relative to classpath or to system file path.<br>
+ * An icon can also be a region of a sprite atlas image :
+ * [path]#[x],[y],[width],[height] (for instance "icons/atlas.png#16,0,16,16").
+ * A path whose last '#' is not followed by four integers is a plain image
+ * file path.
+ * Each atlas image is decoded once and cached : its icons are views sharing
+ * the atlas image data. The cache is shared with the
+ * {@link AsyncImageIconReader}.
  * 
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
 public class ImageIconReader implements PropertyReader<ImageIcon> {
 
+	/** Separator of the atlas path and region **/
+	private static final char __REGION_SEPARATOR = '#';
+
+	/** Separator of the region coordinates **/
+	private static final char __COORDINATES_SEPARATOR = ',';
+
 	/** Singleton instance **/
 	private static ImageIconReader __instance;
 
+	/** Atlas images decoded, by atlas file URL **/
+	private final ConcurrentMap<String, BufferedImage> atlases;
+
 	/**
 	 * Constructor
 	 */
@@ -48,6 +70,7 @@ public class ImageIconReader implements PropertyReader<ImageIcon> {
 		// forbids external instance
 		// ensure reader messages are loaded
 		SPLoaderMessages.addDefaultMessages();
+		atlases = new ConcurrentHashMap<String, BufferedImage>();
 	}
 
 	/**
@@ -56,24 +79,16 @@ public class ImageIconReader implements PropertyReader<ImageIcon> {
 	@Override
 	public ImageIcon readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
-		String filePath = propertyRepresentation.trim();
-		URL iconURL = ClassLoader.getSystemClassLoader().getResource(filePath);
-		if (iconURL == null) {
-			// the file is not in class path
-			try {
-				final File file = new File(filePath);
-				if (!file.exists()) {
-					throw new IllegalArgumentException(DMLoader.getMessage(
-							SPLoaderMessages.IMAGE_READER_PATH_ERROR,
-							propertyRepresentation));
-				}
-				iconURL = file.toURI().toURL();
-			} catch (MalformedURLException ex) {
-				throw new IllegalArgumentException(DMLoader.getMessage(
-						SPLoaderMessages.IMAGE_READER_PATH_ERROR,
-						propertyRepresentation));
+		int regionStart = propertyRepresentation
+				.lastIndexOf(__REGION_SEPARATOR);
+		if (regionStart >= 0) {
+			int[] region = parseRegion(propertyRepresentation, regionStart);
+			if (region != null) {
+				return readAtlasIcon(propertyRepresentation, regionStart,
+						region);
 			}
 		}
+		URL iconURL = getIconURL(propertyRepresentation);
 
 		// build the icon from the URL found
 		ImageIcon imageIcon;
@@ -95,6 +110,231 @@ public class ImageIconReader implements PropertyReader<ImageIcon> {
 		return imageIcon;
 	}
 
+	/**
+	 * Parses the atlas region following the region separator : x, y, width
+	 * and height
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation
+	 * @param regionStart
+	 *            : index of the region separator in the representation
+	 * @return - the region coordinates, null if the separator is not followed
+	 *         by four integers (it is then part of a plain file path)
+	 */
+	static int[] parseRegion(String propertyRepresentation,
+			int regionStart) {
+		int[] region = new int[4];
+		int coordinateStart = regionStart + 1;
+		for (int i = 0; i < region.length; i++) {
+			if (coordinateStart > propertyRepresentation.length()) {
+				// missing coordinate
+				return null;
+			}
+			int coordinateEnd = propertyRepresentation.indexOf(
+					__COORDINATES_SEPARATOR, coordinateStart);
+			if (coordinateEnd < 0 || i == region.length - 1) {
+				coordinateEnd = propertyRepresentation.length();
+			}
+			int start = SequenceParser.trimStart(propertyRepresentation,
+					coordinateStart, coordinateEnd);
+			int end = SequenceParser.trimEnd(propertyRepresentation, start,
+					coordinateEnd);
+			if (!SequenceParser.isInt(propertyRepresentation, start, end, 10)) {
+				return null;
+			}
+			region[i] = SequenceParser.parseInt(propertyRepresentation, start,
+					end, 10);
+			coordinateStart = coordinateEnd + 1;
+		}
+		return region;
+	}
+
+	/**
+	 * Reads an icon from a region of an atlas image
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation
+	 * @param regionStart
+	 *            : index of the region separator in the representation
+	 * @param region
+	 *            : region coordinates : x, y, width and height
+	 * @return - the icon read
+	 * @throws IllegalArgumentException
+	 *             if the region is invalid or the atlas can not be read
+	 */
+	private ImageIcon readAtlasIcon(String propertyRepresentation,
+			int regionStart, int[] region) throws IllegalArgumentException {
+		// a - check the region
+		checkRegion(propertyRepresentation, regionStart, region);
+
+		// b - get the atlas image, decoded once by file
+		URL atlasURL = getIconURL(propertyRepresentation.substring(0,
+				regionStart));
+		BufferedImage atlas = getAtlas(atlasURL);
+		if (atlas == null) {
+			atlas = cacheAtlas(atlasURL, readAtlas(atlasURL));
+		}
+
+		// c - build a view of the region (sharing the atlas data)
+		return new ImageIcon(getRegionImage(atlas, propertyRepresentation,
+				region), propertyRepresentation);
+	}
+
+	/**
+	 * Checks the coordinates of an atlas region
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation
+	 * @param regionStart
+	 *            : index of the region separator in the representation
+	 * @param region
+	 *            : region coordinates : x, y, width and height
+	 * @throws IllegalArgumentException
+	 *             if the region is invalid
+	 */
+	static void checkRegion(String propertyRepresentation, int regionStart,
+			int[] region) throws IllegalArgumentException {
+		if (region[0] < 0 || region[1] < 0 || region[2] <= 0
+				|| region[3] <= 0) {
+			throw getRegionError(propertyRepresentation, regionStart);
+		}
+	}
+
+	/**
+	 * Returns the image of an atlas region, as a view sharing the atlas data
+	 * 
+	 * @param atlas
+	 *            : atlas image
+	 * @param propertyRepresentation
+	 *            : property representation
+	 * @param region
+	 *            : region coordinates : x, y, width and height
+	 * @return - the region image
+	 * @throws IllegalArgumentException
+	 *             if the region is out of the atlas bounds
+	 */
+	static BufferedImage getRegionImage(BufferedImage atlas,
+			String propertyRepresentation, int[] region)
+			throws IllegalArgumentException {
+		if ((long) region[0] + region[2] > atlas.getWidth()
+				|| (long) region[1] + region[3] > atlas.getHeight()) {
+			throw new IllegalArgumentException(DMLoader.getMessage(
+					SPLoaderMessages.IMAGE_READER_REGION_OUT_OF_BOUNDS,
+					propertyRepresentation, String.valueOf(atlas.getWidth()),
+					String.valueOf(atlas.getHeight())));
+		}
+		return atlas.getSubimage(region[0], region[1], region[2], region[3]);
+	}
+
+	/**
+	 * Getter - atlas image already decoded
+	 * 
+	 * @param atlasURL
+	 *            : atlas file URL
+	 * @return - the atlas image, null if it was not decoded yet
+	 */
+	BufferedImage getAtlas(URL atlasURL) {
+		return atlases.get(atlasURL.toExternalForm());
+	}
+
+	/**
+	 * Caches a decoded atlas image
+	 * 
+	 * @param atlasURL
+	 *            : atlas file URL
+	 * @param atlas
+	 *            : atlas image decoded
+	 * @return - the atlas image to use : the one cached before if the atlas
+	 *         was also decoded concurrently
+	 */
+	BufferedImage cacheAtlas(URL atlasURL, BufferedImage atlas) {
+		BufferedImage knownAtlas = atlases.putIfAbsent(atlasURL
+				.toExternalForm(), atlas);
+		return knownAtlas == null ? atlas : knownAtlas;
+	}
+
+	/**
+	 * Returns the error of an invalid atlas region
+	 * 
+	 * @param propertyRepresentation
+	 *            : property representation
+	 * @param regionStart
+	 *            : index of the region separator in the representation
+	 * @return - the error to throw
+	 */
+	private static IllegalArgumentException getRegionError(
+			String propertyRepresentation, int regionStart) {
+		return new IllegalArgumentException(DMLoader.getMessage(
+				SPLoaderMessages.IMAGE_READER_INVALID_REGION,
+				propertyRepresentation, propertyRepresentation
+						.substring(regionStart + 1)));
+	}
+
+	/**
+	 * Decodes an atlas image
+	 * 
+	 * @param atlasURL
+	 *            : atlas file URL
+	 * @return - the atlas image
+	 * @throws IllegalArgumentException
+	 *             if the file can not be decoded
+	 */
+	private static BufferedImage readAtlas(URL atlasURL)
+			throws IllegalArgumentException {
+		BufferedImage atlas = null;
+		try {
+			atlas = ImageIO.read(atlasURL);
+		} catch (IOException e) {
+			// handled below
+		}
+		if (atlas == null) {
+			throw new IllegalArgumentException(DMLoader.getMessage(
+					SPLoaderMessages.IMAGE_READER_INVALID_IMAGE_FILE, atlasURL
+							.toString()));
+		}
+		return atlas;
+	}
+
+	/**
+	 * Empties the atlas images cache (the atlas files will be decoded again)
+	 */
+	public void clearCache() {
+		atlases.clear();
+	}
+
+	/**
+	 * Returns the URL of an image file, searched in the class path then in the
+	 * file system
+	 * 
+	 * @param propertyRepresentation
+	 *            : image file path
+	 * @return - the image file URL
+	 * @throws IllegalArgumentException
+	 *             if the file is not found
+	 */
+	static URL getIconURL(String propertyRepresentation)
+			throws IllegalArgumentException {
+		String filePath = propertyRepresentation.trim();
+		URL iconURL = ClassLoader.getSystemClassLoader().getResource(filePath);
+		if (iconURL == null) {
+			// the file is not in class path
+			try {
+				final File file = new File(filePath);
+				if (!file.exists()) {
+					throw new IllegalArgumentException(DMLoader.getMessage(
+							SPLoaderMessages.IMAGE_READER_PATH_ERROR,
+							propertyRepresentation));
+				}
+				iconURL = file.toURI().toURL();
+			} catch (MalformedURLException ex) {
+				throw new IllegalArgumentException(DMLoader.getMessage(
+						SPLoaderMessages.IMAGE_READER_PATH_ERROR,
+						propertyRepresentation));
+			}
+		}
+		return iconURL;
+	}
+
 	/**
 	 * Singleton getter
 	 * 
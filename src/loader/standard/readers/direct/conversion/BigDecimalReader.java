@@ -20,6 +20,7 @@ package loader.standard.readers.direct.conversion;
 
 import java.math.BigDecimal;
 
+import loader.ImmutablePropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -29,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class BigDecimalReader implements IDirectValueConverter<BigDecimal> {
+public class BigDecimalReader implements IDirectValueConverter<BigDecimal>,
+		ImmutablePropertyReader<BigDecimal> {
 
 	/** Singleton instance **/
 	private static BigDecimalReader __instance;
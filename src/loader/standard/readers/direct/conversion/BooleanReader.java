@@ -18,6 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
+import loader.BooleanPropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -27,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class BooleanReader implements IDirectValueConverter<Boolean> {
+public class BooleanReader implements IDirectValueConverter<Boolean>,
+		BooleanPropertyReader, ResultPropertyReader<Boolean> {
 
 	/** Singleton instance **/
 	private static BooleanReader __instance;
@@ -47,16 +51,88 @@ public class BooleanReader implements IDirectValueConverter<Boolean> {
 	@Override
 	public Boolean readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
-		String stringValue = propertyRepresentation.trim();
-		// create the parsing method as the Boolean one do not propagate errors
-		if (stringValue.equalsIgnoreCase("true")) {
-			return true;
+		return Boolean.valueOf(readBooleanProperty(propertyRepresentation, 0,
+				propertyRepresentation.length()));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Boolean> parseProperty(String propertyRepresentation) {
+		switch (parse(propertyRepresentation, 0, propertyRepresentation
+				.length())) {
+		case 1:
+			return ParseResult.success(Boolean.TRUE);
+		case 0:
+			return ParseResult.success(Boolean.FALSE);
+		default:
+			return ParseResult.failure(SPLoaderMessages.BOOLEAN_READER_ERROR,
+					propertyRepresentation);
 		}
-		if (stringValue.equalsIgnoreCase("false")) {
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Boolean readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return Boolean.valueOf(readBooleanProperty(sequence, start, end));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public boolean readBooleanProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		return readBooleanProperty(propertyRepresentation, 0,
+				propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public boolean readBooleanProperty(CharSequence sequence, int start,
+			int end) throws IllegalArgumentException {
+		switch (parse(sequence, start, end)) {
+		case 1:
+			return true;
+		case 0:
 			return false;
+		default:
+			throw new IllegalArgumentException(DMLoader.getMessage(
+					SPLoaderMessages.BOOLEAN_READER_ERROR, sequence
+							.subSequence(start, end).toString()));
+		}
+	}
+
+	/**
+	 * Parses a boolean
+	 * 
+	 * @param sequence
+	 *            : sequence holding the boolean
+	 * @param start
+	 *            : boolean start in the sequence
+	 * @param end
+	 *            : boolean end in the sequence (excluded)
+	 * @return - 1 for true, 0 for false, -1 for an invalid boolean
+	 */
+	private static int parse(CharSequence sequence, int start, int end) {
+		int valueStart = SequenceParser.trimStart(sequence, start, end);
+		int valueEnd = SequenceParser.trimEnd(sequence, valueStart, end);
+		// create the parsing method as the Boolean one do not propagate errors
+		if (SequenceParser.equalsIgnoreCase(sequence, valueStart, valueEnd,
+				"true")) {
+			return 1;
+		}
+		if (SequenceParser.equalsIgnoreCase(sequence, valueStart, valueEnd,
+				"false")) {
+			return 0;
 		}
-		throw new IllegalArgumentException(DMLoader.getMessage(
-				SPLoaderMessages.BOOLEAN_READER_ERROR, propertyRepresentation));
+		return -1;
 	}
 
 	/**
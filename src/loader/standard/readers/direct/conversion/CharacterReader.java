@@ -18,7 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
-import loader.messages.DMLoader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
+import loader.SequencePropertyReader;
 import loader.standard.SPLoaderMessages;
 
 /**
@@ -27,7 +29,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class CharacterReader implements IDirectValueConverter<Character> {
+public class CharacterReader implements IDirectValueConverter<Character>,
+		SequencePropertyReader<Character>, ResultPropertyReader<Character> {
 
 	/** Singleton instance **/
 	private static CharacterReader __instance;
@@ -47,13 +50,48 @@ public class CharacterReader implements IDirectValueConverter<Character> {
 	@Override
 	public Character readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
-		String stringValue = propertyRepresentation.trim();
-		if (stringValue.isEmpty() || stringValue.length() > 1) {
-			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.CHARACTER_READER_ERROR,
-					propertyRepresentation));
+		return parse(propertyRepresentation, 0,
+				propertyRepresentation.length()).getValue();
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Character> parseProperty(String propertyRepresentation) {
+		return parse(propertyRepresentation, 0, propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Character readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return parse(sequence, start, end).getValue();
+	}
+
+	/**
+	 * Parses a character
+	 * 
+	 * @param sequence
+	 *            : sequence holding the character
+	 * @param start
+	 *            : character start in the sequence
+	 * @param end
+	 *            : character end in the sequence (excluded)
+	 * @return - the parse result
+	 */
+	private static ParseResult<Character> parse(CharSequence sequence,
+			int start, int end) {
+		int valueStart = SequenceParser.trimStart(sequence, start, end);
+		int valueEnd = SequenceParser.trimEnd(sequence, valueStart, end);
+		if (valueEnd - valueStart != 1) {
+			return ParseResult.failure(SPLoaderMessages.CHARACTER_READER_ERROR,
+					sequence.subSequence(start, end).toString());
 		}
-		return new Character(stringValue.charAt(0));
+		return ParseResult.success(Character.valueOf(sequence
+				.charAt(valueStart)));
 	}
 
 	/**
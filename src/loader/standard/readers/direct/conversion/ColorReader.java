@@ -19,9 +19,11 @@
 package loader.standard.readers.direct.conversion;
 
 import java.awt.Color;
-import java.util.StringTokenizer;
 
-import loader.messages.DMLoader;
+import loader.ImmutablePropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
+import loader.SequencePropertyReader;
 import loader.standard.SPLoaderMessages;
 
 /**
@@ -32,7 +34,9 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class ColorReader implements IDirectValueConverter<Color> {
+public class ColorReader implements IDirectValueConverter<Color>,
+		SequencePropertyReader<Color>, ResultPropertyReader<Color>,
+		ImmutablePropertyReader<Color> {
 
 	/** Singleton instance **/
 	private static ColorReader __instance;
@@ -40,12 +44,18 @@ public class ColorReader implements IDirectValueConverter<Color> {
 	/**
 	 * Comma separator
 	 */
-	private static final String __COMMA_SEPARATOR = ",";
+	private static final char __COMMA_SEPARATOR = ',';
 	/**
 	 * Hexadecimal character
 	 */
 	private static final char __HEXA_CHAR = '#';
 
+	/** Hexadecimal couple not found **/
+	private static final int HEXA_MISSING = -1;
+
+	/** Hexadecimal couple that is not an hexadecimal value **/
+	private static final int HEXA_INVALID = -2;
+
 	/**
 	 * Constructor
 	 */
@@ -61,135 +71,226 @@ public class ColorReader implements IDirectValueConverter<Color> {
 	@Override
 	public Color readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
-		String stringValue = propertyRepresentation.trim();
-		if (!stringValue.isEmpty()) {
+		return parse(propertyRepresentation, 0,
+				propertyRepresentation.length()).getValue();
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Color> parseProperty(String propertyRepresentation) {
+		return parse(propertyRepresentation, 0, propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Color readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return parse(sequence, start, end).getValue();
+	}
+
+	/**
+	 * Parses a color
+	 * 
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : color start in the sequence
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - the parse result
+	 */
+	private ParseResult<Color> parse(CharSequence sequence, int start, int end) {
+		int valueStart = SequenceParser.trimStart(sequence, start, end);
+		int valueEnd = SequenceParser.trimEnd(sequence, valueStart, end);
+		if (valueStart < valueEnd) {
 			// attempt parsing as hexadecimal
-			if (stringValue.charAt(0) == __HEXA_CHAR) {
-				return readHexaColor(stringValue);
+			if (sequence.charAt(valueStart) == __HEXA_CHAR) {
+				return readHexaColor(sequence, valueStart, valueEnd);
 			}
 			// comma separated values
-			return readCommaSeparatedColor(stringValue);
+			return readCommaSeparatedColor(sequence, valueStart, valueEnd);
 		}
-		throw new IllegalArgumentException(DMLoader
-				.getMessage(SPLoaderMessages.COLOR_READER_ERROR_EMPTY));
+		return ParseResult.failure(SPLoaderMessages.COLOR_READER_ERROR_EMPTY);
 
 	}
 
 	/**
 	 * Reads a color at hexadeciaml format (#A0A0B0,#FFFFFFB0)
 	 * 
-	 * @param stringValue
-	 *            : color as string
-	 * @return - the color read
-	 * @throws - Illegal argument exception if the string representation is not
-	 *         valid
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : color start in the sequence
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - the color read, or the error found if the string
+	 *         representation is not valid
 	 */
-	private Color readHexaColor(String stringValue) {
+	private ParseResult<Color> readHexaColor(CharSequence sequence, int start,
+			int end) {
 		// a - is the string length invalid?
-		if (stringValue.length() > 9) {
-			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.COLOR_READER_ERROR_HEXA_TOO_LONG,
-					stringValue));
+		if (end - start > 9) {
+			return ParseResult.failure(
+					SPLoaderMessages.COLOR_READER_ERROR_HEXA_TOO_LONG, sequence
+							.subSequence(start, end).toString());
 		}
 
-		// b - parse string
-		int r = getHexaValueAt(1, stringValue, false);
-		int g = getHexaValueAt(3, stringValue, false);
-		int b = getHexaValueAt(5, stringValue, false);
-		int a = getHexaValueAt(7, stringValue, true);
-		return new Color(r, g, b, a);
+		// b - parse string (the alpha value is optional)
+		int r = getHexaValueAt(1, sequence, start, end);
+		if (r < 0) {
+			return getHexaError(r, 1, sequence, start, end);
+		}
+		int g = getHexaValueAt(3, sequence, start, end);
+		if (g < 0) {
+			return getHexaError(g, 3, sequence, start, end);
+		}
+		int b = getHexaValueAt(5, sequence, start, end);
+		if (b < 0) {
+			return getHexaError(b, 5, sequence, start, end);
+		}
+		int a = 255;
+		if (end - start >= 9) {
+			a = getHexaValueAt(7, sequence, start, end);
+			if (a < 0) {
+				return getHexaError(a, 7, sequence, start, end);
+			}
+		}
+		return ParseResult.success(new Color(r, g, b, a));
 	}
 
 	/**
 	 * Get an hexadecimal value from a string as a couple of values
 	 * 
 	 * @param index
-	 *            : hexadecimal couple first location
-	 * @param stringValue
-	 *            : string in which the hexadecimal should be found
-	 * @param isOptionnal
-	 *            : is the value optional (if not, exceptions could be thrown)
-	 * @return - the hexadecimal value found, 255 if the value was not found and
-	 *         optional
-	 * @throws - Illegal argument exception if the string is to short
+	 *            : hexadecimal couple first location, from the color start
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : color start in the sequence
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - the hexadecimal value found, {@link #HEXA_MISSING} if the
+	 *         string is to short or {@link #HEXA_INVALID} if the couple is not
+	 *         an hexadecimal value
 	 */
-	private int getHexaValueAt(int index, String stringValue,
-			boolean isOptionnal) {
-		if (stringValue.length() < index + 2) {
+	private int getHexaValueAt(int index, CharSequence sequence, int start,
+			int end) {
+		if (end - start < index + 2) {
 			// the hexadecimal couple does not stand in the string
-			if (isOptionnal) {
-				return 255;
-			}
-
-			throw new IllegalArgumentException(
-					DMLoader
-							.getMessage(
-									SPLoaderMessages.COLOR_READER_ERROR_HEXA_MISSING_ATTRIBUTES,
-									stringValue));
+			return HEXA_MISSING;
 		}
-		int parsedInt;
-		String hexadecimalString = stringValue.substring(index, index + 2);
-		try {
-			parsedInt = Integer.parseInt(hexadecimalString, 16);
-		} catch (NumberFormatException e) {
-			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.COLOR_READER_ERROR_HEXA_INVALID_ATTRIBUTE,
-					stringValue, hexadecimalString));
+		int high = Character.digit(sequence.charAt(start + index), 16);
+		int low = Character.digit(sequence.charAt(start + index + 1), 16);
+		if (high < 0 || low < 0) {
+			return HEXA_INVALID;
 		}
 
-		return parsedInt;
+		return (high << 4) | low;
+	}
+
+	/**
+	 * Builds the error result of an hexadecimal couple
+	 * 
+	 * @param error
+	 *            : {@link #HEXA_MISSING} or {@link #HEXA_INVALID}
+	 * @param index
+	 *            : hexadecimal couple first location, from the color start
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : color start in the sequence
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - the error result
+	 */
+	private ParseResult<Color> getHexaError(int error, int index,
+			CharSequence sequence, int start, int end) {
+		String stringValue = sequence.subSequence(start, end).toString();
+		if (error == HEXA_MISSING) {
+			return ParseResult
+					.failure(
+							SPLoaderMessages.COLOR_READER_ERROR_HEXA_MISSING_ATTRIBUTES,
+							stringValue);
+		}
+		return ParseResult.failure(
+				SPLoaderMessages.COLOR_READER_ERROR_HEXA_INVALID_ATTRIBUTE,
+				stringValue, sequence.subSequence(start + index,
+						start + index + 2).toString());
 	}
 
 	/**
 	 * Reads a color at comma separated format (255,200,20 or
-	 * 200,200,100,235...)
+	 * 200,200,100,235...). Empty attributes are ignored.
 	 * 
-	 * @param stringValue
-	 *            : color as string
-	 * @return - The corresponding color
-	 * @throws - Illegal argument exception if the string representation is not
-	 *         valid
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : color start in the sequence
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - The corresponding color, or the error found if the string
+	 *         representation is not valid
 	 */
-	private Color readCommaSeparatedColor(String stringValue) {
-		StringTokenizer stringTokenizer = new StringTokenizer(stringValue,
-				__COMMA_SEPARATOR);
-		if (stringTokenizer.countTokens() < 3) {
-			throw new IllegalArgumentException(
-					DMLoader
-							.getMessage(
-									SPLoaderMessages.COLOR_READER_ERROR_RGBA_MISSING_ATTRIBUTES,
-									stringValue));
+	private ParseResult<Color> readCommaSeparatedColor(CharSequence sequence,
+			int start, int end) {
+		// count the attributes
+		int attributesCount = 0;
+		for (int tokenStart = start; tokenStart < end;) {
+			int tokenEnd = nextSeparator(sequence, tokenStart, end);
+			if (tokenEnd > tokenStart) {
+				attributesCount++;
+			}
+			tokenStart = tokenEnd + 1;
 		}
-		if (stringTokenizer.countTokens() > 4) {
-			throw new IllegalArgumentException(
-					DMLoader
-							.getMessage(
-									SPLoaderMessages.COLOR_READER_ERROR_RGBA_TOO_MANY_ATTRIBUTES,
-									stringValue));
+		if (attributesCount < 3) {
+			return ParseResult
+					.failure(
+							SPLoaderMessages.COLOR_READER_ERROR_RGBA_MISSING_ATTRIBUTES,
+							sequence.subSequence(start, end).toString());
+		}
+		if (attributesCount > 4) {
+			return ParseResult
+					.failure(
+							SPLoaderMessages.COLOR_READER_ERROR_RGBA_TOO_MANY_ATTRIBUTES,
+							sequence.subSequence(start, end).toString());
 		}
 		int count = 0;
 		int r = 255;
 		int g = 255;
 		int b = 255;
 		int a = 255;
-		while (stringTokenizer.hasMoreTokens()) {
-			int temp;
-			String token = stringTokenizer.nextToken();
-			try {
-				temp = new Integer(token.trim());
-			} catch (NumberFormatException e) {
-				throw new IllegalArgumentException(
-						DMLoader
-								.getMessage(
-										SPLoaderMessages.COLOR_READER_ERROR_RGBA_INVALID_ATTRIBUTE,
-										stringValue, token));
+		for (int tokenStart = start; tokenStart < end;) {
+			int tokenEnd = nextSeparator(sequence, tokenStart, end);
+			if (tokenEnd == tokenStart) {
+				// empty attribute
+				tokenStart++;
+				continue;
+			}
+			int valueStart = SequenceParser.trimStart(sequence, tokenStart,
+					tokenEnd);
+			int valueEnd = SequenceParser.trimEnd(sequence, valueStart,
+					tokenEnd);
+			if (!SequenceParser.isInt(sequence, valueStart, valueEnd, 10)) {
+				return ParseResult
+						.failure(
+								SPLoaderMessages.COLOR_READER_ERROR_RGBA_INVALID_ATTRIBUTE,
+								sequence.subSequence(start, end).toString(),
+								sequence.subSequence(tokenStart, tokenEnd)
+										.toString());
 			}
+			int temp = SequenceParser.parseInt(sequence, valueStart, valueEnd,
+					10);
 			if (temp < 0 || temp > 255) {
-				throw new IllegalArgumentException(
-						DMLoader
-								.getMessage(
-										SPLoaderMessages.COLOR_READER_ERROR_RGBA_INVALID_INTEGER_VALUE,
-										stringValue, token));
+				return ParseResult
+						.failure(
+								SPLoaderMessages.COLOR_READER_ERROR_RGBA_INVALID_INTEGER_VALUE,
+								sequence.subSequence(start, end).toString(),
+								sequence.subSequence(tokenStart, tokenEnd)
+										.toString());
 			}
 
 			switch (count) {
@@ -206,9 +307,31 @@ public class ColorReader implements IDirectValueConverter<Color> {
 				a = temp;
 			}
 			count++;
+			tokenStart = tokenEnd + 1;
 		}
 
-		return new Color(r, g, b, a);
+		return ParseResult.success(new Color(r, g, b, a));
+	}
+
+	/**
+	 * Returns the position of the next comma separator
+	 * 
+	 * @param sequence
+	 *            : sequence holding the color
+	 * @param start
+	 *            : search start
+	 * @param end
+	 *            : color end in the sequence (excluded)
+	 * @return - the separator position, or the color end if there is none
+	 */
+	private static int nextSeparator(CharSequence sequence, int start,
+			int end) {
+		int position = start;
+		while (position < end
+				&& sequence.charAt(position) != __COMMA_SEPARATOR) {
+			position++;
+		}
+		return position;
 	}
 
 	/**
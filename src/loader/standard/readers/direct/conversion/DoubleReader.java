@@ -18,6 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
+import loader.DoublePropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -27,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class DoubleReader implements IDirectValueConverter<Double> {
+public class DoubleReader implements IDirectValueConverter<Double>,
+		DoublePropertyReader, ResultPropertyReader<Double> {
 
 	/** Singleton instance **/
 	private static DoubleReader __instance;
@@ -47,12 +51,55 @@ public class DoubleReader implements IDirectValueConverter<Double> {
 	@Override
 	public Double readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
+		return Double.valueOf(readDoubleProperty(propertyRepresentation, 0,
+				propertyRepresentation.length()));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Double> parseProperty(String propertyRepresentation) {
+		int length = propertyRepresentation.length();
+		if (!SequenceParser.isDecimal(propertyRepresentation, 0, length)) {
+			return ParseResult.failure(SPLoaderMessages.DOUBLE_READER_ERROR,
+					propertyRepresentation);
+		}
+		return ParseResult.success(Double.valueOf(SequenceParser.parseDouble(
+				propertyRepresentation, 0, length)));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Double readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return Double.valueOf(readDoubleProperty(sequence, start, end));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public double readDoubleProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		return readDoubleProperty(propertyRepresentation, 0,
+				propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public double readDoubleProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
 		try {
-			return new Double(propertyRepresentation);
+			return SequenceParser.parseDouble(sequence, start, end);
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.DOUBLE_READER_ERROR,
-					propertyRepresentation));
+					SPLoaderMessages.DOUBLE_READER_ERROR, sequence
+							.subSequence(start, end).toString()));
 		}
 	}
 
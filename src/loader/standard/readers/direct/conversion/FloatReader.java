@@ -18,6 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
+import loader.FloatPropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -27,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class FloatReader implements IDirectValueConverter<Float> {
+public class FloatReader implements IDirectValueConverter<Float>,
+		FloatPropertyReader, ResultPropertyReader<Float> {
 
 	/** Singleton instance **/
 	private static FloatReader __instance;
@@ -47,12 +51,55 @@ public class FloatReader implements IDirectValueConverter<Float> {
 	@Override
 	public Float readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
+		return Float.valueOf(readFloatProperty(propertyRepresentation, 0,
+				propertyRepresentation.length()));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Float> parseProperty(String propertyRepresentation) {
+		int length = propertyRepresentation.length();
+		if (!SequenceParser.isDecimal(propertyRepresentation, 0, length)) {
+			return ParseResult.failure(SPLoaderMessages.FLOAT_READER_ERROR,
+					propertyRepresentation);
+		}
+		return ParseResult.success(Float.valueOf(SequenceParser.parseFloat(
+				propertyRepresentation, 0, length)));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Float readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return Float.valueOf(readFloatProperty(sequence, start, end));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public float readFloatProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		return readFloatProperty(propertyRepresentation, 0,
+				propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public float readFloatProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
 		try {
-			return new Float(propertyRepresentation);
+			return SequenceParser.parseFloat(sequence, start, end);
 		} catch (NumberFormatException e) {
-			throw new IllegalArgumentException(DMLoader
-					.getMessage(SPLoaderMessages.FLOAT_READER_ERROR,
-							propertyRepresentation));
+			throw new IllegalArgumentException(DMLoader.getMessage(
+					SPLoaderMessages.FLOAT_READER_ERROR, sequence
+							.subSequence(start, end).toString()));
 		}
 	}
 
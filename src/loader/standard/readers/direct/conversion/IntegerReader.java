@@ -18,6 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
+import loader.IntPropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -27,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class IntegerReader implements IDirectValueConverter<Integer> {
+public class IntegerReader implements IDirectValueConverter<Integer>,
+		IntPropertyReader, ResultPropertyReader<Integer> {
 
 	/** Singleton instance **/
 	private static IntegerReader __instance;
@@ -47,12 +51,55 @@ public class IntegerReader implements IDirectValueConverter<Integer> {
 	@Override
 	public Integer readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
+		return Integer.valueOf(readIntProperty(propertyRepresentation, 0,
+				propertyRepresentation.length()));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Integer> parseProperty(String propertyRepresentation) {
+		int length = propertyRepresentation.length();
+		if (!SequenceParser.isInt(propertyRepresentation, 0, length, 10)) {
+			return ParseResult.failure(SPLoaderMessages.INTEGER_READER_ERROR,
+					propertyRepresentation);
+		}
+		return ParseResult.success(Integer.valueOf(SequenceParser.parseInt(
+				propertyRepresentation, 0, length, 10)));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Integer readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return Integer.valueOf(readIntProperty(sequence, start, end));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public int readIntProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		return readIntProperty(propertyRepresentation, 0,
+				propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public int readIntProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
 		try {
-			return new Integer(propertyRepresentation);
+			return SequenceParser.parseInt(sequence, start, end, 10);
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.INTEGER_READER_ERROR,
-					propertyRepresentation));
+					SPLoaderMessages.INTEGER_READER_ERROR, sequence
+							.subSequence(start, end).toString()));
 		}
 	}
 
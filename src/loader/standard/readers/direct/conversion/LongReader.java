@@ -18,6 +18,9 @@
 
 package loader.standard.readers.direct.conversion;
 
+import loader.LongPropertyReader;
+import loader.ParseResult;
+import loader.ResultPropertyReader;
 import loader.messages.DMLoader;
 import loader.standard.SPLoaderMessages;
 
@@ -27,7 +30,8 @@ import loader.standard.SPLoaderMessages;
  * Copyright 2010, Raphael Mechali <br>
  * Distributed under Lesser GNU General Public License (LGPL)
  */
-public class LongReader implements IDirectValueConverter<Long> {
+public class LongReader implements IDirectValueConverter<Long>,
+		LongPropertyReader, ResultPropertyReader<Long> {
 
 	/** Singleton instance **/
 	private static LongReader __instance;
@@ -47,11 +51,55 @@ public class LongReader implements IDirectValueConverter<Long> {
 	@Override
 	public Long readProperty(String propertyRepresentation)
 			throws IllegalArgumentException {
+		return Long.valueOf(readLongProperty(propertyRepresentation, 0,
+				propertyRepresentation.length()));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public ParseResult<Long> parseProperty(String propertyRepresentation) {
+		int length = propertyRepresentation.length();
+		if (!SequenceParser.isLong(propertyRepresentation, 0, length, 10)) {
+			return ParseResult.failure(SPLoaderMessages.LONG_READER_ERROR,
+					propertyRepresentation);
+		}
+		return ParseResult.success(Long.valueOf(SequenceParser.parseLong(
+				propertyRepresentation, 0, length, 10)));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public Long readProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
+		return Long.valueOf(readLongProperty(sequence, start, end));
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public long readLongProperty(String propertyRepresentation)
+			throws IllegalArgumentException {
+		return readLongProperty(propertyRepresentation, 0,
+				propertyRepresentation.length());
+	}
+
+	/**
+	 * {@inherit}
+	 */
+	@Override
+	public long readLongProperty(CharSequence sequence, int start, int end)
+			throws IllegalArgumentException {
 		try {
-			return new Long(propertyRepresentation);
+			return SequenceParser.parseLong(sequence, start, end, 10);
 		} catch (NumberFormatException e) {
 			throw new IllegalArgumentException(DMLoader.getMessage(
-					SPLoaderMessages.LONG_READER_ERROR, propertyRepresentation));
+					SPLoaderMessages.LONG_READER_ERROR, sequence
+							.subSequence(start, end).toString()));
 		}
 	}
 
@@ -0,0 +1,630 @@
+/** 
+ * This file is part of GenericPropertyLoader project.
+ *
+ * GenericPropertyLoader is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 3 of 
+ * the License, or (at your option) any later version.
+ *
+ * GenericPropertyLoader is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * and GNU Lesser General Public License along with GenericPropertyLoader project.
+ * If not, see <http://www.gnu.org/licenses/>.
+ **/
+
+package loader.standard.readers.direct.conversion;
+
+/**
+ * Parsers of the standard readers, that work on a region of a character
+ * sequence and do not build any intermediate object (no trimmed copy, no sub
+ * string). They accept exactly what the matching java.lang parse methods
+ * accept.
+ * 
+ * Copyright 2010, Raphael Mechali <br>
+ * Distributed under Lesser GNU General Public License (LGPL)
+ */
+public final class SequenceParser {
+
+	/** Result of {@link #parseDecimal} when the fast path does not apply **/
+	private static final long NOT_FAST = -1;
+
+	/** Greatest mantissa a double holds exactly (2^53) **/
+	private static final long DOUBLE_EXACT_MANTISSA = 1L << 53;
+
+	/** Greatest mantissa a float holds exactly (2^24) **/
+	private static final long FLOAT_EXACT_MANTISSA = 1L << 24;
+
+	/** Powers of ten that a double holds exactly **/
+	private static final double[] DOUBLE_POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3,
+			1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+			1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/** Powers of ten that a float holds exactly **/
+	private static final float[] FLOAT_POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f,
+			1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	/**
+	 * Constructor
+	 */
+	private SequenceParser() {
+		// forbids instances
+	}
+
+	/**
+	 * Returns the start of a region without its leading white spaces (as
+	 * {@link String#trim()} defines them)
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the trimmed region start
+	 */
+	public static int trimStart(CharSequence sequence, int start, int end) {
+		while (start < end && sequence.charAt(start) <= ' ') {
+			start++;
+		}
+		return start;
+	}
+
+	/**
+	 * Returns the end of a region without its trailing white spaces (as
+	 * {@link String#trim()} defines them)
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the trimmed region end (excluded)
+	 */
+	public static int trimEnd(CharSequence sequence, int start, int end) {
+		while (end > start && sequence.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Is a region equal to a value, ignoring case (as
+	 * {@link String#equalsIgnoreCase(String)})
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param value
+	 *            : value
+	 * @return - true if the region is equal to the value, ignoring case
+	 */
+	public static boolean equalsIgnoreCase(CharSequence sequence, int start,
+			int end, String value) {
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = sequence.charAt(start + i);
+			char expected = value.charAt(i);
+			if (c != expected
+					&& Character.toUpperCase(c) != Character
+							.toUpperCase(expected)
+					&& Character.toLowerCase(c) != Character
+							.toLowerCase(expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Is a region a valid integer, as {@link Integer#parseInt(String, int)}
+	 * accepts it
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @return - true if the region can be parsed as an integer
+	 */
+	public static boolean isInt(CharSequence sequence, int start, int end,
+			int radix) {
+		return isInteger(sequence, start, end, radix, Integer.MIN_VALUE,
+				Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Is a region a valid long, as {@link Long#parseLong(String, int)} accepts
+	 * it
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @return - true if the region can be parsed as a long
+	 */
+	public static boolean isLong(CharSequence sequence, int start, int end,
+			int radix) {
+		return isInteger(sequence, start, end, radix, Long.MIN_VALUE,
+				Long.MAX_VALUE);
+	}
+
+	/**
+	 * Parses an integer, as {@link Integer#parseInt(String, int)}
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @return - the integer parsed
+	 * @throws NumberFormatException
+	 *             if the region is not a valid integer
+	 */
+	public static int parseInt(CharSequence sequence, int start, int end,
+			int radix) throws NumberFormatException {
+		if (!isInt(sequence, start, end, radix)) {
+			throw numberFormatException(sequence, start, end);
+		}
+		return (int) accumulate(sequence, start, end, radix);
+	}
+
+	/**
+	 * Parses a long, as {@link Long#parseLong(String, int)}
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @return - the long parsed
+	 * @throws NumberFormatException
+	 *             if the region is not a valid long
+	 */
+	public static long parseLong(CharSequence sequence, int start, int end,
+			int radix) throws NumberFormatException {
+		if (!isLong(sequence, start, end, radix)) {
+			throw numberFormatException(sequence, start, end);
+		}
+		return accumulate(sequence, start, end, radix);
+	}
+
+	/**
+	 * Is a region a valid integer in a range
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @param min
+	 *            : smallest valid value
+	 * @param max
+	 *            : greatest valid value
+	 * @return - true if the region is a signed integer in the range
+	 */
+	private static boolean isInteger(CharSequence sequence, int start,
+			int end, int radix, long min, long max) {
+		int position = start;
+		boolean negative = false;
+		if (position < end) {
+			char first = sequence.charAt(position);
+			if (first == '-' || first == '+') {
+				negative = first == '-';
+				position++;
+			}
+		}
+		if (position >= end) {
+			return false;
+		}
+		// accumulated negatively, as Long.MIN_VALUE has no positive opposite
+		long limit = negative ? min : -max;
+		long multiplyLimit = limit / radix;
+		long value = 0;
+		for (; position < end; position++) {
+			int digit = Character.digit(sequence.charAt(position), radix);
+			if (digit < 0 || value < multiplyLimit) {
+				return false;
+			}
+			value *= radix;
+			if (value < limit + digit) {
+				return false;
+			}
+			value -= digit;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the value of a region validated as an integer
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param radix
+	 *            : radix
+	 * @return - the region value
+	 */
+	private static long accumulate(CharSequence sequence, int start, int end,
+			int radix) {
+		int position = start;
+		char first = sequence.charAt(position);
+		boolean negative = first == '-';
+		if (negative || first == '+') {
+			position++;
+		}
+		long value = 0;
+		for (; position < end; position++) {
+			value = value * radix
+					- Character.digit(sequence.charAt(position), radix);
+		}
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Is a region a valid floating point value, as
+	 * {@link Double#parseDouble(String)} accepts it : optional white spaces and
+	 * sign, then NaN, Infinity, a decimal value or an hexadecimal value,
+	 * followed by an optional type suffix
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - true if the region can be parsed as a double or a float
+	 */
+	public static boolean isDecimal(CharSequence sequence, int start, int end) {
+		int position = trimStart(sequence, start, end);
+		end = trimEnd(sequence, position, end);
+		if (position < end) {
+			char first = sequence.charAt(position);
+			if (first == '-' || first == '+') {
+				position++;
+			}
+		}
+		if (equalsRegion(sequence, position, end, "NaN")
+				|| equalsRegion(sequence, position, end, "Infinity")) {
+			return true;
+		}
+		if (end > position && isTypeSuffix(sequence.charAt(end - 1))) {
+			end--;
+		}
+		int radix = 10;
+		if (end - position > 2 && sequence.charAt(position) == '0'
+				&& (sequence.charAt(position + 1) | 0x20) == 'x') {
+			radix = 16;
+			position += 2;
+		}
+		// mantissa
+		int digits = 0;
+		boolean point = false;
+		for (; position < end; position++) {
+			char c = sequence.charAt(position);
+			if (c == '.' && !point) {
+				point = true;
+			} else if (isDigit(c, radix)) {
+				digits++;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		// exponent : decimal, optional for decimal values, mandatory for
+		// hexadecimal ones
+		if (position == end) {
+			return radix == 10;
+		}
+		char exponentChar = (char) (sequence.charAt(position) | 0x20);
+		if (exponentChar != (radix == 10 ? 'e' : 'p')) {
+			return false;
+		}
+		position++;
+		if (position < end) {
+			char first = sequence.charAt(position);
+			if (first == '-' || first == '+') {
+				position++;
+			}
+		}
+		if (position >= end) {
+			return false;
+		}
+		for (; position < end; position++) {
+			if (!isDigit(sequence.charAt(position), 10)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Is a region equal to a value
+	 *
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param value
+	 *            : value
+	 * @return - true if the region is equal to the value
+	 */
+	private static boolean equalsRegion(CharSequence sequence, int start,
+			int end, String value) {
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (sequence.charAt(start + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Is a character an ASCII digit
+	 *
+	 * @param c
+	 *            : character
+	 * @param radix
+	 *            : 10 or 16
+	 * @return - true if the character is a digit in that radix
+	 */
+	private static boolean isDigit(char c, int radix) {
+		if (c >= '0' && c <= '9') {
+			return true;
+		}
+		char lowerCase = (char) (c | 0x20);
+		return radix == 16 && lowerCase >= 'a' && lowerCase <= 'f';
+	}
+
+	/**
+	 * Is a character a floating point type suffix
+	 *
+	 * @param c
+	 *            : character
+	 * @return - true for f, F, d or D
+	 */
+	private static boolean isTypeSuffix(char c) {
+		char lowerCase = (char) (c | 0x20);
+		return lowerCase == 'f' || lowerCase == 'd';
+	}
+
+	/**
+	 * Parses a double, as {@link Double#parseDouble(String)}. The plain
+	 * decimal values whose digits and power of ten are exact in double
+	 * precision are computed with a single correctly rounded operation. The
+	 * other ones are delegated to {@link Double#parseDouble(String)}.
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the double parsed
+	 * @throws NumberFormatException
+	 *             if the region is not a valid double
+	 */
+	public static double parseDouble(CharSequence sequence, int start, int end)
+			throws NumberFormatException {
+		long decimal = parseDecimal(sequence, start, end, DOUBLE_EXACT_MANTISSA,
+				DOUBLE_POWERS_OF_TEN.length - 1);
+		if (decimal != NOT_FAST) {
+			double value = getMantissa(decimal);
+			int exponent = getExponent(decimal);
+			if (exponent < 0) {
+				value /= DOUBLE_POWERS_OF_TEN[-exponent];
+			} else {
+				value *= DOUBLE_POWERS_OF_TEN[exponent];
+			}
+			return isNegative(decimal) ? -value : value;
+		}
+		return Double.parseDouble(sequence.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Parses a float, as {@link Float#parseFloat(String)} (see
+	 * {@link #parseDouble(CharSequence, int, int)})
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the float parsed
+	 * @throws NumberFormatException
+	 *             if the region is not a valid float
+	 */
+	public static float parseFloat(CharSequence sequence, int start, int end)
+			throws NumberFormatException {
+		long decimal = parseDecimal(sequence, start, end, FLOAT_EXACT_MANTISSA,
+				FLOAT_POWERS_OF_TEN.length - 1);
+		if (decimal != NOT_FAST) {
+			float value = getMantissa(decimal);
+			int exponent = getExponent(decimal);
+			if (exponent < 0) {
+				value /= FLOAT_POWERS_OF_TEN[-exponent];
+			} else {
+				value *= FLOAT_POWERS_OF_TEN[exponent];
+			}
+			return isNegative(decimal) ? -value : value;
+		}
+		return Float.parseFloat(sequence.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Parses a plain decimal value ([sign]digits[.digits][(e|E)[sign]digits]
+	 * between optional white spaces), when it can be computed exactly
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @param maxMantissa
+	 *            : greatest exact mantissa
+	 * @param maxExponent
+	 *            : greatest exact power of ten
+	 * @return - the decimal packed as mantissa (bits 0 - 53), power of ten + 64
+	 *         (bits 54 - 61) and sign (bit 62), or {@link #NOT_FAST} when the
+	 *         region is not such a value
+	 */
+	private static long parseDecimal(CharSequence sequence, int start,
+			int end, long maxMantissa, int maxExponent) {
+		int position = trimStart(sequence, start, end);
+		end = trimEnd(sequence, position, end);
+		boolean negative = false;
+		if (position < end) {
+			char first = sequence.charAt(position);
+			if (first == '-' || first == '+') {
+				negative = first == '-';
+				position++;
+			}
+		}
+		long mantissa = 0;
+		int exponent = 0;
+		int digits = 0;
+		boolean point = false;
+		for (; position < end; position++) {
+			char c = sequence.charAt(position);
+			if (c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				if (mantissa > maxMantissa) {
+					return NOT_FAST;
+				}
+				digits++;
+				if (point) {
+					exponent--;
+				}
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return NOT_FAST;
+		}
+		if (position < end) {
+			char c = sequence.charAt(position);
+			if (c != 'e' && c != 'E') {
+				return NOT_FAST;
+			}
+			position++;
+			boolean negativeExponent = false;
+			if (position < end) {
+				char first = sequence.charAt(position);
+				if (first == '-' || first == '+') {
+					negativeExponent = first == '-';
+					position++;
+				}
+			}
+			if (position >= end) {
+				return NOT_FAST;
+			}
+			int written = 0;
+			for (; position < end; position++) {
+				c = sequence.charAt(position);
+				if (c < '0' || c > '9' || written > maxExponent * 2) {
+					return NOT_FAST;
+				}
+				written = written * 10 + (c - '0');
+			}
+			exponent += negativeExponent ? -written : written;
+		}
+		if (mantissa == 0 || exponent < -maxExponent
+				|| exponent > maxExponent) {
+			// zero is delegated to keep its sign
+			return NOT_FAST;
+		}
+		return mantissa | ((long) (exponent + 64) << 54)
+				| (negative ? 1L << 62 : 0);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @param decimal
+	 *            : decimal packed by {@link #parseDecimal}
+	 * @return the decimal mantissa
+	 */
+	private static long getMantissa(long decimal) {
+		return decimal & ((1L << 54) - 1);
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @param decimal
+	 *            : decimal packed by {@link #parseDecimal}
+	 * @return the decimal power of ten
+	 */
+	private static int getExponent(long decimal) {
+		return (int) ((decimal >>> 54) & 0xFF) - 64;
+	}
+
+	/**
+	 * Getter -
+	 * 
+	 * @param decimal
+	 *            : decimal packed by {@link #parseDecimal}
+	 * @return true if the decimal is negative
+	 */
+	private static boolean isNegative(long decimal) {
+		return (decimal & (1L << 62)) != 0;
+	}
+
+	/**
+	 * Builds the exception for an invalid number
+	 * 
+	 * @param sequence
+	 *            : character sequence
+	 * @param start
+	 *            : region start
+	 * @param end
+	 *            : region end (excluded)
+	 * @return - the exception
+	 */
+	private static NumberFormatException numberFormatException(
+			CharSequence sequence, int start, int end) {
+		return new NumberFormatException("For input string: \""
+				+ sequence.subSequence(start, end) + "\"");
+	}
+
+}